@@ -14,21 +14,53 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+        // The androidTest benchmarks run against the debuggable app; their numbers are for comparing
+        // commits on the same device, not absolute figures
+        testInstrumentationRunnerArguments["androidx.benchmark.suppressErrors"] = "DEBUGGABLE,EMULATOR"
+
+        // CSV parse mode (SEQUENTIAL or PARALLEL) and thread count (0 = one per core),
+        // e.g. ./gradlew installDebug -Pco2.parseMode=PARALLEL -Pco2.parseThreads=4
+        val parseMode = (project.findProperty("co2.parseMode") as String?) ?: "SEQUENTIAL"
+        val parseThreads = (project.findProperty("co2.parseThreads") as String?) ?: "0"
+        buildConfigField("String", "CSV_PARSE_MODE", "\"$parseMode\"")
+        buildConfigField("int", "CSV_PARSE_THREADS", parseThreads)
     }
 
+    // Timers, counters and trace sections for parse, index build, query and bind (see EmissionsMetrics).
+    // On in debug builds; override with e.g. ./gradlew installRelease -Pco2.metrics=true
+    val metrics = project.findProperty("co2.metrics") as String?
+
     buildTypes {
+        debug {
+            buildConfigField("boolean", "METRICS_ENABLED", metrics ?: "true")
+        }
         release {
+            buildConfigField("boolean", "METRICS_ENABLED", metrics ?: "false")
             isMinifyEnabled = false
             proguardFiles(
                 getDefaultProguardFile("proguard-android-optimize.txt"),
                 "proguard-rules.pro"
             )
         }
+        // Release code signed with the debug key, so :macrobenchmark can install and measure it
+        create("benchmark") {
+            initWith(getByName("release"))
+            signingConfig = signingConfigs.getByName("debug")
+            matchingFallbacks += listOf("release")
+            buildConfigField("boolean", "METRICS_ENABLED", metrics ?: "false")
+        }
+    }
+    buildFeatures {
+        buildConfig = true
     }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        // Lets android.* calls return defaults in local JVM unit tests
+        unitTests.isReturnDefaultValues = true
+    }
     sourceSets {
         getByName("main") {
             assets {
@@ -39,14 +71,20 @@ android {
 }
 
 dependencies {
+    implementation(project(":emissions-core"))
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
     implementation(libs.constraintlayout)
+    implementation(libs.lifecycle.viewmodel)
+    implementation(libs.lifecycle.livedata)
+    // Installs src/main/baseline-prof.txt on sideloaded builds, which do not get it from Play
+    implementation(libs.profileinstaller)
     implementation("androidx.recyclerview:recyclerview:1.3.2")
     implementation("com.github.PhilJay:MPAndroidChart:v3.1.0")
 
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
+    androidTestImplementation(libs.benchmark.junit4)
 }
\ No newline at end of file
@@ -0,0 +1,138 @@
+package com.example.co2emissionsanalyzer.benchmark;
+
+import android.content.Context;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.example.co2emissionsanalyzer.models.EmissionsDataset;
+import com.example.co2emissionsanalyzer.utils.CSVDocumentLoader;
+import com.example.co2emissionsanalyzer.utils.CSVParser;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * On-device counterpart of the JMH suite in the :benchmark module. Results,
+ * including allocation counts, are written by androidx.benchmark as JSON
+ * under the connected test output directory.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HotPathBenchmark {
+    private static final String ASSET_NAME = "co2_emission_by_countries.csv";
+
+    private static Context context;
+    private static List<CountryEmission> countries;
+    private static EmissionsDataset dataset;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @BeforeClass
+    public static void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        countries = new CSVDocumentLoader(context).parseCSVFile(ASSET_NAME);
+        dataset = new EmissionsDataset(new CSVDocumentLoader(context).parseCSVFile(ASSET_NAME));
+        assertFalse(countries.isEmpty());
+    }
+
+    @Test
+    public void parseCSVFile_sequential() {
+        BenchmarkState state = benchmarkRule.getState();
+        CSVDocumentLoader loader = new CSVDocumentLoader(context);
+        while (state.keepRunning()) {
+            loader.parseCSVFile(ASSET_NAME);
+        }
+    }
+
+    @Test
+    public void parseCSVFile_parallel() {
+        BenchmarkState state = benchmarkRule.getState();
+        CSVDocumentLoader loader = new CSVDocumentLoader(context);
+        loader.setParseMode(CSVParser.ParseMode.PARALLEL, 0);
+        while (state.keepRunning()) {
+            loader.parseCSVFile(ASSET_NAME);
+        }
+    }
+
+    @Test
+    public void getTopPolluters_scan() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            CSVParser.getTopPolluters(countries, 2020, 10);
+        }
+    }
+
+    @Test
+    public void getTopPolluters_indexed() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            dataset.getRankingIndex().getTopEmitters(2020, 10);
+        }
+    }
+
+    @Test
+    public void getHighestEmitterForYear_scan() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            CSVParser.getHighestEmitterForYear(countries, 1900);
+        }
+    }
+
+    @Test
+    public void getHighestEmitterForYear_indexed() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            dataset.getRankingIndex().getHighestEmitter(1900);
+        }
+    }
+
+    @Test
+    public void findCountryByName_scan() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            CSVParser.findCountryByName(countries, "ivoire");
+        }
+    }
+
+    @Test
+    public void findCountryByName_indexed() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            dataset.getSearchIndex().findBestMatch("ivoire");
+        }
+    }
+
+    // Resetting the population drops the cached stats, so each pass computes them again
+    @Test
+    public void countryStats_compute() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (CountryEmission country : countries) {
+                country.setPopulation(country.getPopulation());
+                country.getStats();
+            }
+        }
+    }
+
+    @Test
+    public void countryStats_cached() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (CountryEmission country : countries) {
+                country.getTotalEmissions();
+                country.getAverageEmissionsPerCapita();
+                country.getYearWithHighestEmissions();
+            }
+        }
+    }
+}
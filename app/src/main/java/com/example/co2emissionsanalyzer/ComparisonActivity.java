@@ -0,0 +1,324 @@
+package com.example.co2emissionsanalyzer;
+
+import androidx.appcompat.app.AppCompatActivity;
+import android.content.Intent;
+import android.graphics.Color;
+import android.os.Bundle;
+import android.view.View;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.Spinner;
+import android.widget.TextView;
+import android.widget.Toast;
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.example.co2emissionsanalyzer.models.EmissionsDataset;
+import com.example.co2emissionsanalyzer.repository.EmissionsRepository;
+import com.example.co2emissionsanalyzer.utils.EmissionsComparison;
+import com.example.co2emissionsanalyzer.utils.EmissionsDataLoader;
+import com.github.mikephil.charting.charts.LineChart;
+import com.github.mikephil.charting.components.XAxis;
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.LineData;
+import com.github.mikephil.charting.data.LineDataSet;
+import com.github.mikephil.charting.formatter.ValueFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares several countries over a year window with one line per country.
+ * The series come from {@link com.example.co2emissionsanalyzer.utils.ComparisonCache},
+ * which computes every metric at once and caches the result, so switching
+ * metric only rebuilds the chart entries.
+ */
+public class ComparisonActivity extends AppCompatActivity {
+
+    private static final int MAX_COUNTRIES = 20;
+    private static final String[] METRIC_LABELS = {
+            "Emissions (tons)", "Ratio to first country", "Share of selection (%)",
+            "Share of world (%)", "Change from previous year (tons)"
+    };
+    private static final EmissionsComparison.Metric[] METRICS = {
+            EmissionsComparison.Metric.EMISSIONS, EmissionsComparison.Metric.RATIO_TO_REFERENCE,
+            EmissionsComparison.Metric.SHARE_OF_SELECTION, EmissionsComparison.Metric.SHARE_OF_WORLD,
+            EmissionsComparison.Metric.YEAR_OVER_YEAR
+    };
+
+    private TextView textSelectedCountries, textComparisonSummary;
+    private EditText editTextAddCountry, editTextFromYear, editTextToYear;
+    private Button buttonAddCountry, buttonApplyYears, buttonBack;
+    private Spinner spinnerMetric;
+    private LineChart chartComparison;
+    private EmissionsDataset dataset;
+    // Ordinals of the compared countries; the first one is the reference
+    private final List<Integer> selection = new ArrayList<>();
+    private int fromYear;
+    private int toYear;
+    private final EmissionsDataLoader dataLoader = new EmissionsDataLoader();
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_comparison);
+
+        initializeViews();
+        setupChart();
+        setupControls();
+
+        // A restored selection wins over the one the screen was opened with
+        Bundle source = savedInstanceState != null ? savedInstanceState : getIntent().getExtras();
+        if (source != null) {
+            int[] ordinals = source.getIntArray("country_ordinals");
+            if (ordinals != null) {
+                for (int ordinal : ordinals) {
+                    selection.add(ordinal);
+                }
+            }
+            fromYear = source.getInt("from_year");
+            toYear = source.getInt("to_year");
+        }
+        loadDataset();
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putIntArray("country_ordinals", selectionOrdinals());
+        outState.putInt("from_year", fromYear);
+        outState.putInt("to_year", toYear);
+    }
+
+    @Override
+    protected void onDestroy() {
+        dataLoader.shutdown();
+        super.onDestroy();
+    }
+
+    private void initializeViews() {
+        textSelectedCountries = findViewById(R.id.textSelectedCountries);
+        textComparisonSummary = findViewById(R.id.textComparisonSummary);
+        editTextAddCountry = findViewById(R.id.editTextAddCountry);
+        editTextFromYear = findViewById(R.id.editTextFromYear);
+        editTextToYear = findViewById(R.id.editTextToYear);
+        buttonAddCountry = findViewById(R.id.buttonAddCountry);
+        buttonApplyYears = findViewById(R.id.buttonApplyYears);
+        buttonBack = findViewById(R.id.buttonBackFromComparison);
+        spinnerMetric = findViewById(R.id.spinnerMetric);
+        chartComparison = findViewById(R.id.chartComparison);
+    }
+
+    private void setupChart() {
+        chartComparison.getDescription().setEnabled(false);
+        chartComparison.setNoDataText("Loading emissions...");
+        chartComparison.setScaleYEnabled(false);
+        chartComparison.getAxisRight().setEnabled(false);
+
+        XAxis xAxis = chartComparison.getXAxis();
+        xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
+        xAxis.setGranularity(1f);
+        xAxis.setValueFormatter(new ValueFormatter() {
+            @Override
+            public String getFormattedValue(float value) {
+                return String.valueOf((int) value);
+            }
+        });
+    }
+
+    private void setupControls() {
+        ArrayAdapter<String> metricAdapter = new ArrayAdapter<>(this,
+                android.R.layout.simple_spinner_item, METRIC_LABELS);
+        metricAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        spinnerMetric.setAdapter(metricAdapter);
+        // The spinner restores its own position after rotation
+        spinnerMetric.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                updateChart();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
+
+        buttonAddCountry.setOnClickListener(v -> addCountry());
+        buttonApplyYears.setOnClickListener(v -> applyYears());
+        buttonBack.setOnClickListener(v -> finish());
+    }
+
+    private void loadDataset() {
+        EmissionsRepository repository = EmissionsRepository.getInstance(this);
+        EmissionsDataset dataset = repository.peekDataset();
+        if (dataset != null) {
+            onDatasetReady(dataset);
+            return;
+        }
+
+        textSelectedCountries.setText("Loading country data...");
+        dataLoader.load(repository::getDataset,
+                new EmissionsDataLoader.Callback<EmissionsDataset>() {
+                    @Override
+                    public void onProgress(int processedLines, int countriesFound) {
+                    }
+
+                    @Override
+                    public void onLoaded(EmissionsDataset loaded) {
+                        onDatasetReady(loaded);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        Toast.makeText(ComparisonActivity.this, "Error loading CSV data: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                    }
+                });
+    }
+
+    private void onDatasetReady(EmissionsDataset dataset) {
+        this.dataset = dataset;
+        // Drop ordinals that no longer exist, e.g. after the data was reloaded
+        for (int i = selection.size() - 1; i >= 0; i--) {
+            if (dataset.getCountry(selection.get(i)) == null) {
+                selection.remove(i);
+            }
+        }
+
+        int firstYear = dataset.getAggregates().getFirstYear();
+        int lastYear = dataset.getAggregates().getLastYear();
+        if (fromYear == 0 && toYear == 0) {
+            fromYear = firstYear;
+            toYear = lastYear;
+        }
+        fromYear = Math.max(fromYear, firstYear);
+        toYear = Math.min(toYear, lastYear);
+        editTextFromYear.setText(String.valueOf(fromYear));
+        editTextToYear.setText(String.valueOf(toYear));
+        updateChart();
+    }
+
+    private void addCountry() {
+        String query = editTextAddCountry.getText().toString().trim();
+        if (dataset == null) {
+            Toast.makeText(this, "Data is still loading", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (query.isEmpty()) {
+            Toast.makeText(this, "Please enter a country name", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        CountryEmission match = dataset.getSearchIndex().findBestMatch(query);
+        if (match == null) {
+            Toast.makeText(this, "Country not found: " + query, Toast.LENGTH_SHORT).show();
+        } else if (selection.contains(match.getOrdinal())) {
+            Toast.makeText(this, match.getCountryName() + " is already compared", Toast.LENGTH_SHORT).show();
+        } else if (selection.size() >= MAX_COUNTRIES) {
+            Toast.makeText(this, "At most " + MAX_COUNTRIES + " countries can be compared", Toast.LENGTH_SHORT).show();
+        } else {
+            selection.add(match.getOrdinal());
+            editTextAddCountry.setText("");
+            updateChart();
+        }
+    }
+
+    private void applyYears() {
+        if (dataset == null) {
+            Toast.makeText(this, "Data is still loading", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        try {
+            int from = Integer.parseInt(editTextFromYear.getText().toString().trim());
+            int to = Integer.parseInt(editTextToYear.getText().toString().trim());
+            int firstYear = dataset.getAggregates().getFirstYear();
+            int lastYear = dataset.getAggregates().getLastYear();
+            if (from < firstYear || to > lastYear) {
+                Toast.makeText(this, "Years must be between " + firstYear + " and " + lastYear, Toast.LENGTH_SHORT).show();
+                return;
+            }
+            if (to < from) {
+                Toast.makeText(this, "The end year must not be before the start year", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            fromYear = from;
+            toYear = to;
+            updateChart();
+        } catch (NumberFormatException e) {
+            Toast.makeText(this, "Please enter valid years", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private int[] selectionOrdinals() {
+        int[] ordinals = new int[selection.size()];
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = selection.get(i);
+        }
+        return ordinals;
+    }
+
+    private void updateChart() {
+        if (dataset == null) {
+            return;
+        }
+        if (selection.isEmpty() || toYear < fromYear) {
+            textSelectedCountries.setText("No countries selected");
+            textComparisonSummary.setText("");
+            chartComparison.setNoDataText("Add a country to compare");
+            chartComparison.clear();
+            return;
+        }
+
+        EmissionsComparison comparison = dataset.getComparisonCache().compare(selectionOrdinals(), fromYear, toYear);
+        EmissionsComparison.Metric metric = METRICS[Math.max(spinnerMetric.getSelectedItemPosition(), 0)];
+        // Shares are plotted as percentages
+        boolean percent = metric == EmissionsComparison.Metric.SHARE_OF_SELECTION
+                || metric == EmissionsComparison.Metric.SHARE_OF_WORLD;
+
+        StringBuilder names = new StringBuilder();
+        double[] values = new double[comparison.getYearCount()];
+        LineData lineData = new LineData();
+        for (int i = 0; i < comparison.getCountries().size(); i++) {
+            CountryEmission country = comparison.getCountries().get(i);
+            if (i > 0) {
+                names.append(", ");
+            }
+            names.append(country.getCountryName());
+
+            comparison.copySeries(metric, i, values, 0);
+            List<Entry> entries = new ArrayList<>(values.length);
+            for (int year = 0; year < values.length; year++) {
+                // Ratios are undefined where the reference country has no data
+                if (!Double.isNaN(values[year])) {
+                    entries.add(new Entry(fromYear + year, (float) (percent ? values[year] * 100 : values[year])));
+                }
+            }
+            if (entries.isEmpty()) {
+                continue;
+            }
+            LineDataSet dataSet = new LineDataSet(entries, country.getCountryName());
+            dataSet.setColor(seriesColor(i));
+            dataSet.setLineWidth(1.5f);
+            dataSet.setDrawCircles(false);
+            dataSet.setDrawValues(false);
+            dataSet.setHighlightEnabled(false);
+            lineData.addDataSet(dataSet);
+        }
+
+        textSelectedCountries.setText("Comparing " + names);
+        long selectionTotal = comparison.getSelectionTotal(toYear);
+        long worldTotal = comparison.getWorldTotal(toYear);
+        textComparisonSummary.setText("Selected countries in " + toYear + ": "
+                + String.format("%,d", selectionTotal) + " tons"
+                + (worldTotal > 0 ? " (" + String.format("%.2f", (double) selectionTotal / worldTotal * 100)
+                + "% of world)" : ""));
+
+        chartComparison.getXAxis().setAxisMinimum(fromYear);
+        chartComparison.getXAxis().setAxisMaximum(toYear);
+        chartComparison.setData(lineData);
+        chartComparison.invalidate();
+    }
+
+    // Distinct hues for up to MAX_COUNTRIES lines, spaced by the golden angle
+    private static int seriesColor(int index) {
+        return Color.HSVToColor(new float[]{(210f + index * 137.508f) % 360f, 0.75f, 0.85f});
+    }
+}
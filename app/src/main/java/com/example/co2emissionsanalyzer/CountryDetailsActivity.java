@@ -2,16 +2,54 @@ package com.example.co2emissionsanalyzer;
 
 import androidx.appcompat.app.AppCompatActivity;
 import android.content.Intent;
+import android.graphics.Color;
 import android.os.Bundle;
+import android.view.MotionEvent;
 import android.view.View;
 import android.widget.Button;
+import android.widget.EditText;
 import android.widget.TextView;
+import android.widget.Toast;
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.example.co2emissionsanalyzer.models.CountryStats;
+import com.example.co2emissionsanalyzer.models.EmissionsDataset;
+import com.example.co2emissionsanalyzer.repository.EmissionsRepository;
+import com.example.co2emissionsanalyzer.utils.ChartSeriesCache;
+import com.example.co2emissionsanalyzer.utils.EmissionsAggregates;
+import com.example.co2emissionsanalyzer.utils.EmissionsDataLoader;
+import com.github.mikephil.charting.charts.LineChart;
+import com.github.mikephil.charting.components.XAxis;
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.LineData;
+import com.github.mikephil.charting.data.LineDataSet;
+import com.github.mikephil.charting.formatter.ValueFormatter;
+import com.github.mikephil.charting.listener.ChartTouchListener;
+import com.github.mikephil.charting.listener.OnChartGestureListener;
+import java.util.ArrayList;
+import java.util.List;
 
 public class CountryDetailsActivity extends AppCompatActivity {
 
     private TextView textCountryName, textPopulation, textDensity, textPercentageWorld;
     private TextView textTotalEmissions, textAvgPerCapita, textHighestYear;
-    private Button buttonBackToHome;
+    private TextView textMeanMedian, textFirstYearAboveZero, textGrowthRate, textLatestVsPeak;
+    private TextView textWorldRank, textWorldShareSince;
+    private Button buttonBackToHome, buttonAddComparison, buttonOpenComparison;
+    private EditText editTextCompare;
+    private LineChart chartEmissions;
+    private EmissionsDataset dataset;
+    // The country shown on this screen first, then any comparison overlays
+    private final List<CountryEmission> chartCountries = new ArrayList<>();
+    private final EmissionsDataLoader dataLoader = new EmissionsDataLoader();
+
+    private static final int MAX_CHART_COUNTRIES = 5;
+    private static final int[] SERIES_COLORS = {
+            Color.rgb(33, 150, 243), Color.rgb(244, 67, 54), Color.rgb(76, 175, 80),
+            Color.rgb(255, 152, 0), Color.rgb(156, 39, 176)
+    };
+    // Windows are snapped to whole decades so small pans hit the series cache
+    private static final int WINDOW_SNAP_YEARS = 10;
+    private static final int SHARE_SINCE_YEAR = 1990;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -19,10 +57,17 @@ public class CountryDetailsActivity extends AppCompatActivity {
         setContentView(R.layout.activity_country_details);
 
         initializeViews();
-        displayCountryData();
+        setupChart();
+        loadCountry();
         setupBackButton();
     }
 
+    @Override
+    protected void onDestroy() {
+        dataLoader.shutdown();
+        super.onDestroy();
+    }
+
     private void initializeViews() {
         textCountryName = findViewById(R.id.textCountryName);
         textPopulation = findViewById(R.id.textPopulation);
@@ -31,30 +76,315 @@ public class CountryDetailsActivity extends AppCompatActivity {
         textTotalEmissions = findViewById(R.id.textTotalEmissions);
         textAvgPerCapita = findViewById(R.id.textAvgPerCapita);
         textHighestYear = findViewById(R.id.textHighestYear);
+        textMeanMedian = findViewById(R.id.textMeanMedian);
+        textFirstYearAboveZero = findViewById(R.id.textFirstYearAboveZero);
+        textGrowthRate = findViewById(R.id.textGrowthRate);
+        textLatestVsPeak = findViewById(R.id.textLatestVsPeak);
+        textWorldRank = findViewById(R.id.textWorldRank);
+        textWorldShareSince = findViewById(R.id.textWorldShareSince);
         buttonBackToHome = findViewById(R.id.buttonBackToHome);
+        buttonAddComparison = findViewById(R.id.buttonAddComparison);
+        buttonOpenComparison = findViewById(R.id.buttonOpenComparison);
+        editTextCompare = findViewById(R.id.editTextCompare);
+        chartEmissions = findViewById(R.id.chartEmissions);
     }
 
-    private void displayCountryData() {
-        Intent intent = getIntent();
+    private void setupChart() {
+        chartEmissions.getDescription().setEnabled(false);
+        chartEmissions.setNoDataText("Loading emissions...");
+        chartEmissions.setDragEnabled(true);
+        chartEmissions.setScaleXEnabled(true);
+        chartEmissions.setScaleYEnabled(false);
+        // Without fling deceleration the viewport is final when the gesture ends
+        chartEmissions.setDragDecelerationEnabled(false);
+        chartEmissions.getAxisRight().setEnabled(false);
+
+        XAxis xAxis = chartEmissions.getXAxis();
+        xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
+        xAxis.setGranularity(1f);
+        xAxis.setValueFormatter(new ValueFormatter() {
+            @Override
+            public String getFormattedValue(float value) {
+                return String.valueOf((int) value);
+            }
+        });
+
+        // Re-prepare the visible window once a pan or zoom settles, not on every frame
+        chartEmissions.setOnChartGestureListener(new OnChartGestureListener() {
+            @Override
+            public void onChartGestureStart(MotionEvent me, ChartTouchListener.ChartGesture lastPerformedGesture) {
+            }
+
+            @Override
+            public void onChartGestureEnd(MotionEvent me, ChartTouchListener.ChartGesture lastPerformedGesture) {
+                if (lastPerformedGesture == ChartTouchListener.ChartGesture.DRAG
+                        || lastPerformedGesture == ChartTouchListener.ChartGesture.X_ZOOM
+                        || lastPerformedGesture == ChartTouchListener.ChartGesture.PINCH_ZOOM
+                        || lastPerformedGesture == ChartTouchListener.ChartGesture.DOUBLE_TAP) {
+                    updateChart();
+                }
+            }
+
+            @Override
+            public void onChartLongPressed(MotionEvent me) {
+            }
+
+            @Override
+            public void onChartDoubleTapped(MotionEvent me) {
+            }
+
+            @Override
+            public void onChartSingleTapped(MotionEvent me) {
+            }
+
+            @Override
+            public void onChartFling(MotionEvent me1, MotionEvent me2, float velocityX, float velocityY) {
+            }
+
+            @Override
+            public void onChartScale(MotionEvent me, float scaleX, float scaleY) {
+            }
+
+            @Override
+            public void onChartTranslate(MotionEvent me, float dX, float dY) {
+            }
+        });
+
+        buttonAddComparison.setOnClickListener(v -> addComparison());
+        buttonOpenComparison.setOnClickListener(v -> openComparison());
+    }
+
+    /**
+     * The intent only carries the country's ordinal (plus its name as a check),
+     * so the details are resolved against the shared dataset. After process
+     * death the dataset is gone and is rebuilt in the background first.
+     */
+    private void loadCountry() {
+        EmissionsRepository repository = EmissionsRepository.getInstance(this);
+        EmissionsDataset dataset = repository.peekDataset();
+        if (dataset != null) {
+            displayCountryData(dataset);
+            return;
+        }
+
+        textCountryName.setText("Loading country data...");
+        dataLoader.load(repository::getDataset,
+                new EmissionsDataLoader.Callback<EmissionsDataset>() {
+                    @Override
+                    public void onProgress(int processedLines, int countriesFound) {
+                    }
+
+                    @Override
+                    public void onLoaded(EmissionsDataset loaded) {
+                        displayCountryData(loaded);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        Toast.makeText(CountryDetailsActivity.this, "Error loading CSV data: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                    }
+                });
+    }
 
+    private CountryEmission resolveCountry(EmissionsDataset dataset) {
+        Intent intent = getIntent();
         String countryName = intent.getStringExtra("country_name");
-        int population = intent.getIntExtra("population", 0);
-        String density = intent.getStringExtra("density");
-        String percentageWorld = intent.getStringExtra("percentage_world");
-        int totalEmissions = intent.getIntExtra("total_emissions", 0);
-        double avgPerCapita = intent.getDoubleExtra("avg_per_capita", 0.0);
-        int highestYear = intent.getIntExtra("highest_year", 0);
+        CountryEmission country = dataset.getCountry(intent.getIntExtra("country_ordinal", -1));
+        // Ordinals follow the CSV order; fall back to the name if the data changed under us
+        if (country == null || (countryName != null && !countryName.equals(country.getCountryName()))) {
+            country = dataset.getCountryByName(countryName);
+        }
+        return country;
+    }
+
+    private void displayCountryData(EmissionsDataset dataset) {
+        this.dataset = dataset;
+        CountryEmission country = resolveCountry(dataset);
+        if (country == null) {
+            textCountryName.setText("Country not found");
+            return;
+        }
+        chartCountries.clear();
+        chartCountries.add(country);
+        // Wait for layout so the chart's pixel width is known
+        chartEmissions.post(this::updateChart);
+
+        // Stats were computed once when the dataset was built
+        CountryStats stats = country.getStats();
 
         // Display country information
-        textCountryName.setText("Country: " + countryName);
-        textPopulation.setText("Population: " + String.format("%,d", population));
-        textDensity.setText("Density: " + density);
-        textPercentageWorld.setText("% of World Landmass: " + percentageWorld);
+        textCountryName.setText("Country: " + country.getCountryName());
+        textPopulation.setText("Population: " + String.format("%,d", country.getPopulation()));
+        String density = "Density: " + country.getDensity();
+        if (country.getArea() > 0) {
+            density += " (Area: " + String.format("%,d", country.getArea()) + " km\u00B2)";
+        }
+        textDensity.setText(density);
+        textPercentageWorld.setText("% of World Landmass: " + country.getPercentageOfWorld());
 
         // Display calculated statistics
-        textTotalEmissions.setText("Total CO2 Emissions (1750-2022): " + String.format("%,d", totalEmissions) + " tons");
-        textAvgPerCapita.setText("Average Emissions Per Capita: " + String.format("%.2f", avgPerCapita) + " tons/person");
-        textHighestYear.setText("Year with Highest Emissions: " + highestYear);
+        textTotalEmissions.setText("Total CO2 Emissions (1750-2022): " + String.format("%,d", stats.getTotalEmissions()) + " tons");
+        textAvgPerCapita.setText("Average Emissions Per Capita: " + String.format("%.2f", stats.getAveragePerCapita()) + " tons/person");
+        textHighestYear.setText("Year with Highest Emissions: " + stats.getPeakYear());
+        displayExtendedStats(stats);
+        displayWorldComparison(country, stats, dataset.getAggregates());
+    }
+
+    private void displayExtendedStats(CountryStats stats) {
+        if (stats.getYearCount() == 0) {
+            return;
+        }
+
+        textMeanMedian.setText("Mean / Median Yearly Emissions: " + String.format("%,.0f", stats.getMeanEmissions())
+                + " / " + String.format("%,.0f", stats.getMedianEmissions()) + " tons");
+        textMeanMedian.setVisibility(View.VISIBLE);
+
+        if (stats.getFirstYearAboveZero() != 0) {
+            textFirstYearAboveZero.setText("First Year with Emissions: " + stats.getFirstYearAboveZero());
+            textFirstYearAboveZero.setVisibility(View.VISIBLE);
+        }
+
+        if (!Double.isNaN(stats.getCompoundAnnualGrowthRate())) {
+            textGrowthRate.setText("Average Annual Growth: "
+                    + String.format("%.2f", stats.getCompoundAnnualGrowthRate() * 100) + "%");
+            textGrowthRate.setVisibility(View.VISIBLE);
+        }
+
+        if (!Double.isNaN(stats.getLatestShareOfPeak())) {
+            textLatestVsPeak.setText(stats.getLatestYear() + " Emissions vs Peak: "
+                    + String.format("%.1f", stats.getLatestShareOfPeak() * 100) + "% of " + stats.getPeakYear()
+                    + "\nNew record highs in " + stats.getRecordYearCount() + " years, the last in "
+                    + stats.getPeakToDateYear(stats.getLatestYear()));
+            textLatestVsPeak.setVisibility(View.VISIBLE);
+        }
+    }
+
+    private void displayWorldComparison(CountryEmission country, CountryStats stats, EmissionsAggregates aggregates) {
+        int year = stats.getLatestYear();
+        int rank = aggregates.getRank(country.getOrdinal(), year);
+        if (rank > 0) {
+            textWorldRank.setText("Rank in " + year + ": #" + rank + " of "
+                    + dataset.getRankingIndex().getRankedCount(year) + " ("
+                    + String.format("%.2f", aggregates.getShareOfWorld(country.getOrdinal(), year) * 100)
+                    + "% of world emissions)");
+            if (country.getArea() > 0) {
+                textWorldRank.append("\nEmissions per km\u00B2 in " + year + ": "
+                        + String.format("%,.1f", country.getEmissionsPerSquareKm(year)) + " tons");
+            }
+            textWorldRank.setVisibility(View.VISIBLE);
+        }
+
+        int lastYear = aggregates.getLastYear();
+        if (lastYear >= SHARE_SINCE_YEAR) {
+            long since = aggregates.getCountryTotal(country.getOrdinal(), SHARE_SINCE_YEAR, lastYear);
+            double share = aggregates.getShareOfWorld(country.getOrdinal(), SHARE_SINCE_YEAR, lastYear);
+            textWorldShareSince.setText("Emissions " + SHARE_SINCE_YEAR + "-" + lastYear + ": "
+                    + String.format("%,d", since) + " tons ("
+                    + String.format("%.2f", share * 100) + "% of world)");
+            textWorldShareSince.setVisibility(View.VISIBLE);
+        }
+    }
+
+    private void addComparison() {
+        String query = editTextCompare.getText().toString().trim();
+        if (dataset == null || chartCountries.isEmpty()) {
+            Toast.makeText(this, "Data is still loading", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (query.isEmpty()) {
+            Toast.makeText(this, "Please enter a country name", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        CountryEmission match = dataset.getSearchIndex().findBestMatch(query);
+        if (match == null) {
+            Toast.makeText(this, "Country not found: " + query, Toast.LENGTH_SHORT).show();
+        } else if (chartCountries.contains(match)) {
+            Toast.makeText(this, match.getCountryName() + " is already on the chart", Toast.LENGTH_SHORT).show();
+        } else if (chartCountries.size() >= MAX_CHART_COUNTRIES) {
+            Toast.makeText(this, "At most " + MAX_CHART_COUNTRIES + " countries can be compared", Toast.LENGTH_SHORT).show();
+        } else {
+            chartCountries.add(match);
+            editTextCompare.setText("");
+            updateChart();
+        }
+    }
+
+    // Opens the comparison screen with the countries on the chart, this one first as the reference
+    private void openComparison() {
+        if (chartCountries.isEmpty()) {
+            Toast.makeText(this, "Data is still loading", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        int[] ordinals = new int[chartCountries.size()];
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = chartCountries.get(i).getOrdinal();
+        }
+        Intent intent = new Intent(this, ComparisonActivity.class);
+        intent.putExtra("country_ordinals", ordinals);
+        startActivity(intent);
+    }
+
+    /**
+     * Rebuilds the chart data for the visible years, padded by one viewport on
+     * each side so short pans still have data, with about one point per pixel.
+     * The x axis is pinned to the full year range so replacing the data never
+     * moves the viewport.
+     */
+    private void updateChart() {
+        if (chartCountries.isEmpty()) {
+            return;
+        }
+
+        int minYear = Integer.MAX_VALUE;
+        int maxYear = Integer.MIN_VALUE;
+        for (CountryEmission country : chartCountries) {
+            if (country.getYearCount() > 0) {
+                minYear = Math.min(minYear, country.getFirstYear());
+                maxYear = Math.max(maxYear, country.getLastYear());
+            }
+        }
+        if (minYear > maxYear) {
+            chartEmissions.setNoDataText("No emissions data");
+            chartEmissions.clear();
+            return;
+        }
+        chartEmissions.getXAxis().setAxisMinimum(minYear);
+        chartEmissions.getXAxis().setAxisMaximum(maxYear);
+
+        int width = chartEmissions.getWidth() > 0 ? chartEmissions.getWidth() : getResources().getDisplayMetrics().widthPixels;
+        int fromYear = minYear;
+        int toYear = maxYear;
+        int maxPoints = width;
+        if (chartEmissions.getData() != null) {
+            int visibleFrom = (int) Math.floor(chartEmissions.getLowestVisibleX());
+            int visibleTo = (int) Math.ceil(chartEmissions.getHighestVisibleX());
+            int span = Math.max(visibleTo - visibleFrom, 1);
+            fromYear = Math.max(minYear, Math.floorDiv(visibleFrom - span, WINDOW_SNAP_YEARS) * WINDOW_SNAP_YEARS);
+            toYear = Math.min(maxYear, Math.floorDiv(visibleTo + span, WINDOW_SNAP_YEARS) * WINDOW_SNAP_YEARS + WINDOW_SNAP_YEARS);
+            // About one point per pixel of the visible span
+            maxPoints = (int) Math.min((long) width * (toYear - fromYear + 1) / span, Integer.MAX_VALUE);
+        }
+
+        ChartSeriesCache seriesCache = ChartSeriesCache.getInstance();
+        LineData lineData = new LineData();
+        for (int i = 0; i < chartCountries.size(); i++) {
+            CountryEmission country = chartCountries.get(i);
+            List<Entry> entries = seriesCache.getEntries(country, fromYear, toYear, maxPoints);
+            if (entries.isEmpty()) {
+                continue;
+            }
+            LineDataSet dataSet = new LineDataSet(entries, country.getCountryName());
+            int color = SERIES_COLORS[i % SERIES_COLORS.length];
+            dataSet.setColor(color);
+            dataSet.setLineWidth(1.5f);
+            dataSet.setDrawCircles(false);
+            dataSet.setDrawValues(false);
+            dataSet.setHighlightEnabled(false);
+            lineData.addDataSet(dataSet);
+        }
+        chartEmissions.setData(lineData);
+        chartEmissions.invalidate();
     }
 
     private void setupBackButton() {
@@ -1,23 +1,41 @@
 package com.example.co2emissionsanalyzer;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import android.content.Intent;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
+import com.example.co2emissionsanalyzer.adapters.CountryAdapter;
 import com.example.co2emissionsanalyzer.models.CountryEmission;
-import com.example.co2emissionsanalyzer.utils.CSVParser;
+import com.example.co2emissionsanalyzer.models.CountryRow;
+import com.example.co2emissionsanalyzer.models.EmissionsDataset;
+import com.example.co2emissionsanalyzer.repository.EmissionsRepository;
+import com.example.co2emissionsanalyzer.utils.CountryQuery;
+import com.example.co2emissionsanalyzer.utils.EmissionsAggregates;
+import com.example.co2emissionsanalyzer.utils.EmissionsDataLoader;
+import java.util.ArrayList;
 import java.util.List;
 
 public class FilterActivity extends AppCompatActivity {
 
-    private EditText editTextYear;
+    private EditText editTextYear, editTextYearTo;
+    private EditText editTextMinEmissions, editTextMaxEmissions, editTextMinPopulation, editTextMaxPopulation;
+    private EditText editTextMinDensity, editTextMaxDensity, editTextMinPerCapita, editTextMaxPerCapita;
+    private CheckBox checkBoxMatchAny;
     private Button buttonFilter, buttonBackToHome;
     private TextView textResult;
-    private List<CountryEmission> allCountries;
+    private RecyclerView recyclerViewResults;
+    private CountryAdapter resultsAdapter;
+    private EmissionsDataset dataset;
+    // Set once results are listed, so they can be refreshed for a newer dataset
+    private boolean resultsShown = false;
+    private final EmissionsDataLoader dataLoader = new EmissionsDataLoader();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -31,14 +49,74 @@ public class FilterActivity extends AppCompatActivity {
 
     private void initializeViews() {
         editTextYear = findViewById(R.id.editTextYear);
+        editTextYearTo = findViewById(R.id.editTextYearTo);
+        editTextMinEmissions = findViewById(R.id.editTextMinEmissions);
+        editTextMaxEmissions = findViewById(R.id.editTextMaxEmissions);
+        editTextMinPopulation = findViewById(R.id.editTextMinPopulation);
+        editTextMaxPopulation = findViewById(R.id.editTextMaxPopulation);
+        editTextMinDensity = findViewById(R.id.editTextMinDensity);
+        editTextMaxDensity = findViewById(R.id.editTextMaxDensity);
+        editTextMinPerCapita = findViewById(R.id.editTextMinPerCapita);
+        editTextMaxPerCapita = findViewById(R.id.editTextMaxPerCapita);
+        checkBoxMatchAny = findViewById(R.id.checkBoxMatchAny);
         buttonFilter = findViewById(R.id.buttonFilter);
         buttonBackToHome = findViewById(R.id.buttonBackToHome);
         textResult = findViewById(R.id.textResult);
+        recyclerViewResults = findViewById(R.id.recyclerViewResults);
+        recyclerViewResults.setLayoutManager(new LinearLayoutManager(this));
+        resultsAdapter = new CountryAdapter(this::openCountryDetails);
+        recyclerViewResults.setAdapter(resultsAdapter);
     }
 
     private void loadData() {
-        CSVParser parser = new CSVParser(this);
-        allCountries = parser.parseCSVFile("co2_emission_by_countries.csv"); // Updated filename
+        EmissionsRepository repository = EmissionsRepository.getInstance(this);
+        dataset = repository.peekDataset();
+        if (dataset != null) {
+            return;
+        }
+
+        // Wait for the shared parse (started here or by MainActivity) in the background
+        dataLoader.load(repository::getDataset,
+                new EmissionsDataLoader.Callback<EmissionsDataset>() {
+                    @Override
+                    public void onProgress(int processedLines, int countriesFound) {
+                    }
+
+                    @Override
+                    public void onLoaded(EmissionsDataset loaded) {
+                        dataset = loaded;
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        Toast.makeText(FilterActivity.this, "Error loading CSV data: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                    }
+                });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // An import on the main screen replaces the shared dataset; list the results from the new one
+        if (refreshDataset() && resultsShown) {
+            performFilter();
+        }
+    }
+
+    // Switches to the repository's current dataset if it is newer; true if it changed
+    private boolean refreshDataset() {
+        EmissionsDataset latest = EmissionsRepository.getInstance(this).peekDataset();
+        if (latest == null || latest == dataset) {
+            return false;
+        }
+        dataset = latest;
+        return true;
+    }
+
+    @Override
+    protected void onDestroy() {
+        dataLoader.shutdown();
+        super.onDestroy();
     }
 
     private void setupClickListeners() {
@@ -54,38 +132,98 @@ public class FilterActivity extends AppCompatActivity {
 
     private void performFilter() {
         String yearStr = editTextYear.getText().toString().trim();
+        String yearToStr = editTextYearTo.getText().toString().trim();
 
         if (yearStr.isEmpty()) {
             Toast.makeText(this, "Please enter a year", Toast.LENGTH_SHORT).show();
             return;
         }
 
+        // An import may have finished while this screen was open
+        refreshDataset();
+        if (dataset == null) {
+            Toast.makeText(this, "Data is still loading", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
         try {
             int year = Integer.parseInt(yearStr);
+            int yearTo = yearToStr.isEmpty() ? year : Integer.parseInt(yearToStr);
 
-            // Validate year range
-            if (year < 1750 || year > 2022) {
-                Toast.makeText(this, "Year must be between 1750 and 2022", Toast.LENGTH_SHORT).show();
+            // Validate against the years the dataset covers, which imports can extend
+            int firstYear = dataset.getAggregates().getFirstYear();
+            int lastYear = dataset.getAggregates().getLastYear();
+            if (year < firstYear || year > lastYear || yearTo < firstYear || yearTo > lastYear) {
+                Toast.makeText(this, "Year must be between " + firstYear + " and " + lastYear, Toast.LENGTH_SHORT).show();
+                return;
+            }
+            if (yearTo < year) {
+                Toast.makeText(this, "The end year must not be before the start year", Toast.LENGTH_SHORT).show();
                 return;
             }
 
-            // Find country with highest emissions for that year
-            CountryEmission highestEmitter = CSVParser.getHighestEmitterForYear(allCountries, year);
-
-            if (highestEmitter != null) {
-                int emissions = highestEmitter.getEmissionsForYear(year);
-                String result = "Highest CO2 Emitter in " + year + ":\n\n" +
-                        "Country: " + highestEmitter.getCountryName() + "\n" +
-                        "CO2 Emissions: " + String.format("%,d", emissions) + " tons";
-                textResult.setText(result);
-                textResult.setVisibility(View.VISIBLE);
-            } else {
-                textResult.setText("No data available for " + year);
-                textResult.setVisibility(View.VISIBLE);
+            List<CountryQuery> limits = new ArrayList<>();
+            addRange(limits, CountryQuery.Column.EMISSIONS, editTextMinEmissions, editTextMaxEmissions);
+            addRange(limits, CountryQuery.Column.POPULATION, editTextMinPopulation, editTextMaxPopulation);
+            addRange(limits, CountryQuery.Column.DENSITY, editTextMinDensity, editTextMaxDensity);
+            addRange(limits, CountryQuery.Column.EMISSIONS_PER_CAPITA, editTextMinPerCapita, editTextMaxPerCapita);
+
+            // Only countries with emissions in the range are listed; the limits are combined with AND or OR
+            CountryQuery query = CountryQuery.atLeast(CountryQuery.Column.EMISSIONS, 1);
+            if (!limits.isEmpty()) {
+                CountryQuery combined = checkBoxMatchAny.isChecked() ? CountryQuery.or(limits) : CountryQuery.and(limits);
+                query = CountryQuery.and(query, combined);
             }
 
+            List<CountryEmission> results = dataset.getFilterEngine().filter(query, year, yearTo);
+            showResults(results, year, yearTo);
+
         } catch (NumberFormatException e) {
-            Toast.makeText(this, "Please enter a valid year", Toast.LENGTH_SHORT).show();
+            Toast.makeText(this, "Please enter valid numbers", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    // Adds a range condition for the column when at least one of its bounds is filled in
+    private void addRange(List<CountryQuery> limits, CountryQuery.Column column, EditText minInput, EditText maxInput) {
+        String min = minInput.getText().toString().trim();
+        String max = maxInput.getText().toString().trim();
+        if (min.isEmpty() && max.isEmpty()) {
+            return;
         }
+        limits.add(CountryQuery.range(column,
+                min.isEmpty() ? Double.NEGATIVE_INFINITY : Double.parseDouble(min),
+                max.isEmpty() ? Double.POSITIVE_INFINITY : Double.parseDouble(max)));
+    }
+
+    private void showResults(List<CountryEmission> results, int year, int yearTo) {
+        String period = year == yearTo ? String.valueOf(year) : year + "-" + yearTo;
+        // Show the same range totals the results were ranked by
+        resultsAdapter.submitList(CountryRow.forRange(results, dataset.getAggregates(), year, yearTo));
+        resultsShown = true;
+
+        if (results.isEmpty()) {
+            textResult.setText("No countries match for " + period);
+            textResult.setVisibility(View.VISIBLE);
+            return;
+        }
+
+        // Results are sorted by emissions in the period, so the first one is the highest emitter
+        CountryEmission highestEmitter = results.get(0);
+        EmissionsAggregates aggregates = dataset.getAggregates();
+        long emissions = aggregates.getCountryTotal(highestEmitter.getOrdinal(), year, yearTo);
+        double share = aggregates.getShareOfWorld(highestEmitter.getOrdinal(), year, yearTo);
+        String result = "Highest CO2 Emitter in " + period + ":\n" +
+                highestEmitter.getCountryName() + " - " + String.format("%,d", emissions) + " tons (" +
+                String.format("%.1f", share * 100) + "% of world)\n" +
+                results.size() + " countries match, ranked by emissions in " + period;
+        textResult.setText(result);
+        textResult.setVisibility(View.VISIBLE);
+    }
+
+    private void openCountryDetails(CountryEmission country) {
+        Intent intent = new Intent(FilterActivity.this, CountryDetailsActivity.class);
+        intent.putExtra("country_ordinal", country.getOrdinal());
+        intent.putExtra("country_name", country.getCountryName());
+        startActivity(intent);
     }
 }
\ No newline at end of file
@@ -1,21 +1,37 @@
 package com.example.co2emissionsanalyzer;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.util.Log;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.ProgressBar;
+import android.widget.SeekBar;
 import android.widget.TextView;
 import android.widget.Toast;
 import com.example.co2emissionsanalyzer.adapters.CountryAdapter;
+import com.example.co2emissionsanalyzer.adapters.SkeletonAdapter;
 import com.example.co2emissionsanalyzer.models.CountryEmission;
-import com.example.co2emissionsanalyzer.utils.CSVParser;
-import java.util.ArrayList;
-import java.util.HashMap;
+import com.example.co2emissionsanalyzer.models.CountryRow;
+import com.example.co2emissionsanalyzer.utils.CountrySearchIndex;
+import com.example.co2emissionsanalyzer.utils.EmissionsLog;
+import com.example.co2emissionsanalyzer.utils.EmissionsMetrics;
+import com.example.co2emissionsanalyzer.utils.TopPollutersByYear;
+import com.example.co2emissionsanalyzer.viewmodels.MainViewModel;
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 import java.util.List;
 
 public class MainActivity extends AppCompatActivity {
@@ -24,35 +40,40 @@ public class MainActivity extends AppCompatActivity {
     private CountryAdapter adapter;
     private List<CountryEmission> allCountries;
     private List<CountryEmission> topPolluters;
+    // Top polluter rows for every selectable year, formatted once per load
+    private TopPollutersByYear topPollutersByYear;
     private EditText editTextSearch;
-    private Button buttonSearch, buttonFilter, buttonSelectedCountry;
-    private TextView textTopPollutersTitle;
+    private Button buttonSearch, buttonFilter, buttonSelectedCountry, buttonImport;
+    private TextView textTopPollutersTitle, textSelectedYear;
+    private SeekBar seekBarYear;
+    private ProgressBar progressLoading;
+    private MainViewModel viewModel;
     private int currentDisplayYear = 2022; // Track which year we're showing
+    private CountrySearchIndex searchIndex;
+
+    // Typing only refreshes the suggestions once the user pauses for this long
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable pendingSearch = this::showSearchResults;
+
+    // Lets the user pick a CSV file through the Storage Access Framework
+    private final ActivityResultLauncher<String[]> importLauncher =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::onImportFilePicked);
+
+    private static final int SKELETON_ROW_COUNT = 10;
+    private static final String[] IMPORT_MIME_TYPES = {"text/*", "application/csv", "application/octet-stream"};
+    private static final int SEARCH_DEBOUNCE_MS = 150;
+    private static final int SEARCH_SUGGESTION_LIMIT = 10;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
-        Log.d("MainActivity", "onCreate started");
-
         try {
             setContentView(R.layout.activity_main);
-            Log.d("MainActivity", "Layout set successfully");
-
             initializeViews();
-            Log.d("MainActivity", "Views initialized");
-
-            loadData();
-            Log.d("MainActivity", "Data loaded");
-
             setupRecyclerView();
-            Log.d("MainActivity", "RecyclerView setup");
-
             setupClickListeners();
-            Log.d("MainActivity", "Click listeners setup");
-
-            Log.d("MainActivity", "onCreate completed successfully");
-
+            observeData();
         } catch (Exception e) {
             Log.e("MainActivity", "Error in onCreate: " + e.getMessage());
             e.printStackTrace();
@@ -66,104 +87,158 @@ public class MainActivity extends AppCompatActivity {
         buttonSearch = findViewById(R.id.buttonSearch);
         buttonFilter = findViewById(R.id.buttonFilter);
         buttonSelectedCountry = findViewById(R.id.buttonSelectedCountry);
+        buttonImport = findViewById(R.id.buttonImport);
         textTopPollutersTitle = findViewById(R.id.textTopPollutersTitle);
+        progressLoading = findViewById(R.id.progressLoading);
+        seekBarYear = findViewById(R.id.seekBarYear);
+        textSelectedYear = findViewById(R.id.textSelectedYear);
     }
 
-    private void loadData() {
-        try {
-            Log.d("MainActivity", "Starting data loading...");
-
-            // Parse CSV file and load data
-            CSVParser parser = new CSVParser(this);
-            allCountries = parser.parseCSVFile("co2_emission_by_countries.csv");
-            Log.d("MainActivity", "CSV parsed, found " + allCountries.size() + " countries");
-
-            // Debug: Check what years we have data for
-            if (!allCountries.isEmpty()) {
-                CountryEmission sampleCountry = allCountries.get(0);
-                Log.d("MainActivity", "Sample country: " + sampleCountry.getCountryName());
-
-                // Check what years this country has data for
-                HashMap<Integer, Integer> emissions = sampleCountry.getCo2Emissions();
-                Log.d("MainActivity", "Sample country has data for " + emissions.size() + " years");
-
-                // Log some specific years to see what data we have
-                for (int year = 2018; year <= 2022; year++) {
-                    int yearEmissions = sampleCountry.getEmissionsForYear(year);
-                    Log.d("MainActivity", "Sample - Year " + year + ": " + yearEmissions + " tons");
-                }
+    private void observeData() {
+        viewModel = new ViewModelProvider(this).get(MainViewModel.class);
+
+        viewModel.getProcessedLines().observe(this, lines -> {
+            if (allCountries == null) {
+                textTopPollutersTitle.setText("Loading CO2 data... (" + String.format("%,d", lines) + " rows)");
+            }
+        });
+        viewModel.getLoadResult().observe(this, this::onDataLoaded);
+        // Errors and import messages are cleared once shown, so they are not repeated after rotation
+        viewModel.getLoadError().observe(this, message -> {
+            if (message == null) {
+                return;
+            }
+            progressLoading.setVisibility(View.GONE);
+            Toast.makeText(this, "Error loading CSV data: " + message, Toast.LENGTH_LONG).show();
+            viewModel.clearLoadError();
+        });
+        viewModel.getImportRunning().observe(this, running -> {
+            buttonImport.setEnabled(!running);
+            if (running) {
+                progressLoading.setVisibility(View.VISIBLE);
+            } else if (allCountries != null) {
+                progressLoading.setVisibility(View.GONE);
+            }
+        });
+        viewModel.getImportMessage().observe(this, message -> {
+            if (message == null) {
+                return;
             }
+            Toast.makeText(this, message, Toast.LENGTH_LONG).show();
+            viewModel.clearImportMessage();
+        });
 
-            // Find the most recent year with data
-            currentDisplayYear = 2022;
-            topPolluters = CSVParser.getTopPolluters(allCountries, currentDisplayYear, 10);
-            Log.d("MainActivity", "Year " + currentDisplayYear + " has " + topPolluters.size() + " countries with data");
-
-            // If 2022 has no data, try previous years
-            if (topPolluters.isEmpty()) {
-                for (int year = 2021; year >= 2010; year--) {
-                    topPolluters = CSVParser.getTopPolluters(allCountries, year, 10);
-                    Log.d("MainActivity", "Year " + year + " has " + topPolluters.size() + " countries with data");
-
-                    if (!topPolluters.isEmpty()) {
-                        currentDisplayYear = year;
-                        Log.d("MainActivity", "Using year " + year + " instead of 2022");
-
-                        // Log the top emitters for debugging
-                        for (int i = 0; i < Math.min(3, topPolluters.size()); i++) {
-                            CountryEmission country = topPolluters.get(i);
-                            Log.d("MainActivity", "Top " + (i+1) + ": " + country.getCountryName() +
-                                    " (" + country.getEmissionsForYear(year) + " tons)");
-                        }
-                        break;
-                    }
-                }
-            } else {
-                // Log the top emitters for 2022
-                for (int i = 0; i < Math.min(3, topPolluters.size()); i++) {
-                    CountryEmission country = topPolluters.get(i);
-                    Log.d("MainActivity", "Top " + (i+1) + " for 2022: " + country.getCountryName() +
-                            " (" + country.getEmissionsForYear(2022) + " tons)");
+        // No-op if the data was already loaded before a configuration change
+        viewModel.loadData();
+    }
+
+    private void onDataLoaded(MainViewModel.LoadResult result) {
+        allCountries = result.getAllCountries();
+        topPolluters = result.getTopPolluters();
+        topPollutersByYear = result.getTopPollutersByYear();
+        // Keep the year the user scrubbed to across rotation
+        currentDisplayYear = viewModel.getSelectedYear() >= 0 ? viewModel.getSelectedYear() : result.getDisplayYear();
+        searchIndex = result.getSearchIndex();
+        if (EmissionsLog.isLoggable(EmissionsLog.DEBUG)) {
+            EmissionsLog.d("MainActivity", "Data loaded: " + allCountries.size() + " countries, year " + currentDisplayYear);
+        }
+
+        progressLoading.setVisibility(View.GONE);
+        setupYearScrubber();
+
+        // Replace the skeleton rows with the real list, or with matches if the user typed while loading
+        showSearchResults();
+
+        // Show appropriate message (without year since it's now on screen)
+        if (allCountries.isEmpty()) {
+            Toast.makeText(this, "Failed to load data - no countries found", Toast.LENGTH_LONG).show();
+            Log.w("MainActivity", "No countries loaded from CSV");
+        } else if (topPolluters.isEmpty()) {
+            Toast.makeText(this, "Loaded " + allCountries.size() + " countries, but no emission data found", Toast.LENGTH_LONG).show();
+            Log.w("MainActivity", "Countries loaded but no top polluters found");
+        } else {
+            // Simple message without year since it's shown on screen
+            Toast.makeText(this, "Loaded " + allCountries.size() + " countries successfully", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private void showTopPolluters() {
+        // Rows were formatted at load time, so this is a lookup even while the scrubber is dragged
+        List<CountryRow> rows = topPollutersByYear.getRows(currentDisplayYear);
+        textTopPollutersTitle.setText(rows.isEmpty()
+                ? "No emission data for " + currentDisplayYear
+                : "Top 10 CO2 Polluters (" + currentDisplayYear + ")");
+        showRows(rows);
+    }
+
+    private void setupYearScrubber() {
+        int firstYear = topPollutersByYear.getFirstYear();
+        seekBarYear.setMax(topPollutersByYear.getLastYear() - firstYear);
+        seekBarYear.setProgress(currentDisplayYear - firstYear);
+        textSelectedYear.setText(String.valueOf(currentDisplayYear));
+        seekBarYear.setEnabled(true);
+
+        seekBarYear.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                int year = firstYear + progress;
+                if (year == currentDisplayYear) {
+                    return;
                 }
+                currentDisplayYear = year;
+                viewModel.setSelectedYear(year);
+                textSelectedYear.setText(String.valueOf(year));
+                showSearchResults();
             }
 
-            // Update the title with the actual year being displayed
-            if (textTopPollutersTitle != null) {
-                textTopPollutersTitle.setText("Top 10 CO2 Polluters (" + currentDisplayYear + ")");
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {
             }
 
-            // Show appropriate message (without year since it's now on screen)
-            if (allCountries.isEmpty()) {
-                Toast.makeText(this, "Failed to load data - no countries found", Toast.LENGTH_LONG).show();
-                Log.w("MainActivity", "No countries loaded from CSV");
-            } else if (topPolluters.isEmpty()) {
-                Toast.makeText(this, "Loaded " + allCountries.size() + " countries, but no emission data found", Toast.LENGTH_LONG).show();
-                Log.w("MainActivity", "Countries loaded but no top polluters found");
-            } else {
-                // Simple message without year since it's shown on screen
-                Toast.makeText(this, "Loaded " + allCountries.size() + " countries successfully", Toast.LENGTH_SHORT).show();
-                Log.d("MainActivity", "Data loading successful - using year " + currentDisplayYear + " with " + topPolluters.size() + " polluters");
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {
             }
+        });
+    }
 
-        } catch (Exception e) {
-            Log.e("MainActivity", "Error loading data: " + e.getMessage());
-            e.printStackTrace();
+    // Shows live matches for the search box, or the top polluters when it is empty
+    private void showSearchResults() {
+        if (searchIndex == null) {
+            // Still loading; onDataLoaded() will show the results
+            return;
+        }
+
+        String searchQuery = editTextSearch.getText().toString().trim();
+        if (searchQuery.isEmpty()) {
+            showTopPolluters();
+            return;
+        }
 
-            // Create empty lists as fallback
-            allCountries = new ArrayList<>();
-            topPolluters = new ArrayList<>();
+        List<CountryEmission> matches = searchIndex.search(searchQuery, SEARCH_SUGGESTION_LIMIT);
+        textTopPollutersTitle.setText(matches.isEmpty()
+                ? "No countries match \"" + searchQuery + "\""
+                : "Countries matching \"" + searchQuery + "\"");
+        showRows(CountryRow.forYear(matches, currentDisplayYear));
+    }
 
-            Toast.makeText(this, "Error loading CSV data: " + e.getMessage(), Toast.LENGTH_LONG).show();
+    // Swaps out the skeleton on first use; after that the adapter diffs each new list against the shown one
+    private void showRows(List<CountryRow> rows) {
+        if (recyclerViewTopPolluters.getAdapter() != adapter) {
+            recyclerViewTopPolluters.setAdapter(adapter);
+            // First real rows: the screen is complete once they are laid out, which the
+            // layout pass scheduled by the commit does before the posted call runs
+            adapter.submitList(rows, () -> recyclerViewTopPolluters.post(this::reportFullyDrawn));
+            return;
         }
+        adapter.submitList(rows);
     }
 
     private void setupRecyclerView() {
         try {
-            // Pass the correct year to the adapter
-            adapter = new CountryAdapter(topPolluters, this::onCountryClick, currentDisplayYear);
+            // Render placeholder rows right away; the real adapter is set once data arrives
             recyclerViewTopPolluters.setLayoutManager(new LinearLayoutManager(this));
-            recyclerViewTopPolluters.setAdapter(adapter);
-            Log.d("MainActivity", "RecyclerView setup successfully with " + topPolluters.size() + " items for year " + currentDisplayYear);
+            adapter = new CountryAdapter(this::onCountryClick);
+            recyclerViewTopPolluters.setAdapter(new SkeletonAdapter(SKELETON_ROW_COUNT));
         } catch (Exception e) {
             Log.e("MainActivity", "Error setting up RecyclerView: " + e.getMessage());
             e.printStackTrace();
@@ -173,6 +248,24 @@ public class MainActivity extends AppCompatActivity {
     private void setupClickListeners() {
         buttonSearch.setOnClickListener(v -> performSearch());
 
+        editTextSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                searchHandler.removeCallbacks(pendingSearch);
+                searchHandler.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MS);
+            }
+        });
+
+        buttonImport.setOnClickListener(v -> importLauncher.launch(IMPORT_MIME_TYPES));
+
         buttonFilter.setOnClickListener(v -> {
             Intent intent = new Intent(MainActivity.this, FilterActivity.class);
             intent.putExtra("countries_data", "countries_loaded");
@@ -180,7 +273,9 @@ public class MainActivity extends AppCompatActivity {
         });
 
         buttonSelectedCountry.setOnClickListener(v -> {
-            if (!allCountries.isEmpty()) {
+            if (allCountries == null) {
+                Toast.makeText(this, "Data is still loading", Toast.LENGTH_SHORT).show();
+            } else if (!allCountries.isEmpty()) {
                 CountryEmission selectedCountry = allCountries.get(0);
                 navigateToCountryDetails(selectedCountry);
             } else {
@@ -189,6 +284,17 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    private void onImportFilePicked(Uri uri) {
+        if (uri == null) {
+            // Picker was dismissed
+            return;
+        }
+        if (EmissionsLog.isLoggable(EmissionsLog.DEBUG)) {
+            EmissionsLog.d("MainActivity", "Importing " + uri);
+        }
+        viewModel.importCsv(uri);
+    }
+
     private void performSearch() {
         String searchQuery = editTextSearch.getText().toString().trim();
 
@@ -197,8 +303,15 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
 
-        Log.d("MainActivity", "Searching for: " + searchQuery);
-        CountryEmission foundCountry = CSVParser.findCountryByName(allCountries, searchQuery);
+        if (searchIndex == null) {
+            Toast.makeText(this, "Data is still loading", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        if (EmissionsLog.isLoggable(EmissionsLog.DEBUG)) {
+            EmissionsLog.d("MainActivity", "Searching for: " + searchQuery);
+        }
+        CountryEmission foundCountry = searchIndex.findBestMatch(searchQuery);
 
         if (foundCountry != null) {
             navigateToCountryDetails(foundCountry);
@@ -207,19 +320,31 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        searchHandler.removeCallbacks(pendingSearch);
+        super.onDestroy();
+    }
+
+    // adb shell dumpsys activity com.example.co2emissionsanalyzer prints the metrics after the view hierarchy
+    @Override
+    public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+        super.dump(prefix, fd, writer, args);
+        for (String line : EmissionsMetrics.dump().split("\n")) {
+            writer.print(prefix);
+            writer.println(line);
+        }
+    }
+
     private void onCountryClick(CountryEmission country) {
         navigateToCountryDetails(country);
     }
 
     private void navigateToCountryDetails(CountryEmission country) {
+        // Only the ordinal travels in the intent; the details screen resolves it against the shared dataset
         Intent intent = new Intent(MainActivity.this, CountryDetailsActivity.class);
+        intent.putExtra("country_ordinal", country.getOrdinal());
         intent.putExtra("country_name", country.getCountryName());
-        intent.putExtra("population", country.getPopulation());
-        intent.putExtra("percentage_world", country.getPercentageOfWorld());
-        intent.putExtra("density", country.getDensity());
-        intent.putExtra("total_emissions", country.getTotalEmissions());
-        intent.putExtra("avg_per_capita", country.getAverageEmissionsPerCapita());
-        intent.putExtra("highest_year", country.getYearWithHighestEmissions());
         startActivity(intent);
     }
 }
\ No newline at end of file
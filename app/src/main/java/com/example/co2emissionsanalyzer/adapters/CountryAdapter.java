@@ -5,49 +5,72 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.co2emissionsanalyzer.R;
 import com.example.co2emissionsanalyzer.models.CountryEmission;
-import java.util.List;
+import com.example.co2emissionsanalyzer.models.CountryRow;
+import com.example.co2emissionsanalyzer.utils.EmissionsMetrics;
 
-public class CountryAdapter extends RecyclerView.Adapter<CountryAdapter.CountryViewHolder> {
-
-    private List<CountryEmission> countries;
-    private OnCountryClickListener listener;
-    private int displayYear; // Add this to track which year to display
+/**
+ * Country list backed by ListAdapter: submitList() diffs the new rows against
+ * the current ones on a background thread and animates only what changed.
+ * Rows carry preformatted text (see {@link CountryRow}), so binding does no
+ * formatting, and one click listener is shared by every row.
+ */
+public class CountryAdapter extends ListAdapter<CountryRow, CountryAdapter.CountryViewHolder> {
 
     public interface OnCountryClickListener {
         void onCountryClick(CountryEmission country);
     }
 
-    // Updated constructor to accept the year
-    public CountryAdapter(List<CountryEmission> countries, OnCountryClickListener listener, int displayYear) {
-        this.countries = countries;
-        this.listener = listener;
-        this.displayYear = displayYear;
+    private static final DiffUtil.ItemCallback<CountryRow> DIFF_CALLBACK = new DiffUtil.ItemCallback<CountryRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull CountryRow oldItem, @NonNull CountryRow newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull CountryRow oldItem, @NonNull CountryRow newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    private final View.OnClickListener rowClickListener;
+
+    public CountryAdapter(OnCountryClickListener listener) {
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
+        rowClickListener = view -> {
+            CountryViewHolder holder = (CountryViewHolder) view.getTag();
+            int position = holder.getBindingAdapterPosition();
+            if (listener != null && position != RecyclerView.NO_POSITION) {
+                listener.onCountryClick(getItem(position).getCountry());
+            }
+        };
     }
 
-    // Keep the old constructor for compatibility, defaulting to 2022
-    public CountryAdapter(List<CountryEmission> countries, OnCountryClickListener listener) {
-        this(countries, listener, 2022);
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
     }
 
     @NonNull
     @Override
     public CountryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_country, parent, false);
-        return new CountryViewHolder(view);
+        CountryViewHolder holder = new CountryViewHolder(view);
+        view.setTag(holder);
+        view.setOnClickListener(rowClickListener);
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull CountryViewHolder holder, int position) {
-        CountryEmission country = countries.get(position);
-        holder.bind(country, listener, displayYear);
-    }
-
-    @Override
-    public int getItemCount() {
-        return countries != null ? countries.size() : 0;
+        long start = EmissionsMetrics.start(EmissionsMetrics.Timer.BIND);
+        holder.bind(getItem(position));
+        EmissionsMetrics.stop(EmissionsMetrics.Timer.BIND, start);
     }
 
     static class CountryViewHolder extends RecyclerView.ViewHolder {
@@ -62,20 +85,10 @@ public class CountryAdapter extends RecyclerView.Adapter<CountryAdapter.CountryV
             textRanking = itemView.findViewById(R.id.textRanking);
         }
 
-        public void bind(CountryEmission country, OnCountryClickListener listener, int displayYear) {
-            textCountryName.setText(country.getCountryName());
-
-            // Use the actual display year instead of hardcoded 2022
-            int emissions = country.getEmissionsForYear(displayYear);
-            textEmissions2022.setText(String.format("%,d tons", emissions));
-
-            textRanking.setText("#" + (getAdapterPosition() + 1));
-
-            itemView.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onCountryClick(country);
-                }
-            });
+        public void bind(CountryRow row) {
+            textCountryName.setText(row.getName());
+            textEmissions2022.setText(row.getEmissionsText());
+            textRanking.setText(row.getRankText());
         }
     }
-}
\ No newline at end of file
+}
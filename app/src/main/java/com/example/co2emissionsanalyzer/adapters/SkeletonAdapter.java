@@ -0,0 +1,41 @@
+package com.example.co2emissionsanalyzer.adapters;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import com.example.co2emissionsanalyzer.R;
+
+// Shows a fixed number of placeholder rows until the real data is available
+public class SkeletonAdapter extends RecyclerView.Adapter<SkeletonAdapter.SkeletonViewHolder> {
+
+    private final int rowCount;
+
+    public SkeletonAdapter(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    @NonNull
+    @Override
+    public SkeletonViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_country_skeleton, parent, false);
+        return new SkeletonViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull SkeletonViewHolder holder, int position) {
+        // Placeholder rows have nothing to bind
+    }
+
+    @Override
+    public int getItemCount() {
+        return rowCount;
+    }
+
+    static class SkeletonViewHolder extends RecyclerView.ViewHolder {
+        public SkeletonViewHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.co2emissionsanalyzer.models;
+
+import com.example.co2emissionsanalyzer.utils.EmissionsAggregates;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One row of a country list with its display strings already formatted, so
+ * binding a row only sets text. Rows are compared by content, which lets
+ * DiffUtil tell a moved row from a changed one.
+ */
+public class CountryRow {
+    private final CountryEmission country;
+    private final String rankText;
+    private final String emissionsText;
+
+    public CountryRow(CountryEmission country, String rankText, String emissionsText) {
+        this.country = country;
+        this.rankText = rankText;
+        this.emissionsText = emissionsText;
+    }
+
+    // Rows for a ranked list, showing each country's emissions in the year
+    public static List<CountryRow> forYear(List<CountryEmission> countries, int year) {
+        List<CountryRow> rows = new ArrayList<>(countries.size());
+        for (int i = 0; i < countries.size(); i++) {
+            CountryEmission country = countries.get(i);
+            rows.add(new CountryRow(country, "#" + (i + 1),
+                    String.format("%,d tons", country.getEmissionsForYear(year))));
+        }
+        return rows;
+    }
+
+    /**
+     * Rows for a list ranked by emissions over fromYear..toYear, showing each
+     * country's total for that range. With fromYear == toYear this matches
+     * {@link #forYear}.
+     */
+    public static List<CountryRow> forRange(List<CountryEmission> countries, EmissionsAggregates aggregates,
+                                            int fromYear, int toYear) {
+        List<CountryRow> rows = new ArrayList<>(countries.size());
+        for (int i = 0; i < countries.size(); i++) {
+            CountryEmission country = countries.get(i);
+            rows.add(new CountryRow(country, "#" + (i + 1),
+                    String.format("%,d tons", aggregates.getCountryTotal(country.getOrdinal(), fromYear, toYear))));
+        }
+        return rows;
+    }
+
+    public CountryEmission getCountry() {
+        return country;
+    }
+
+    // Stable id for the adapter: the country's position in the dataset
+    public long getId() {
+        return country.getOrdinal();
+    }
+
+    public String getName() {
+        return country.getCountryName();
+    }
+
+    public String getRankText() {
+        return rankText;
+    }
+
+    public String getEmissionsText() {
+        return emissionsText;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CountryRow)) {
+            return false;
+        }
+        CountryRow row = (CountryRow) other;
+        return country == row.country && rankText.equals(row.rankText) && emissionsText.equals(row.emissionsText);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(System.identityHashCode(country), rankText, emissionsText);
+    }
+}
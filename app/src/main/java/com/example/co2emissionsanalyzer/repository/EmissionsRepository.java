@@ -0,0 +1,293 @@
+package com.example.co2emissionsanalyzer.repository;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+import com.example.co2emissionsanalyzer.BuildConfig;
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.example.co2emissionsanalyzer.models.EmissionsDataset;
+import com.example.co2emissionsanalyzer.utils.AppInstrumentation;
+import com.example.co2emissionsanalyzer.utils.CSVDocumentLoader;
+import com.example.co2emissionsanalyzer.utils.CSVParser;
+import com.example.co2emissionsanalyzer.utils.EmissionsLog;
+import com.example.co2emissionsanalyzer.utils.EmissionsMerger;
+import com.example.co2emissionsanalyzer.utils.EmissionsSnapshot;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Process-wide owner of the emissions dataset. The CSV asset is parsed at most
+ * once per process; concurrent callers share the same in-flight parse and
+ * every caller afterwards gets the cached, immutable {@link EmissionsDataset}.
+ * A binary {@link EmissionsSnapshot} of the parsed data is kept in app-private
+ * storage and used instead of the CSV while the asset is unchanged.
+ *
+ * {@link #importCsv} merges an external CSV file into a new dataset, which then
+ * replaces the current one for all later callers.
+ */
+public class EmissionsRepository {
+
+    private static final String CSV_FILE_NAME = "co2_emission_by_countries.csv";
+    private static final String SNAPSHOT_FILE_NAME = "co2_emissions.snapshot";
+
+    private static volatile EmissionsRepository instance;
+
+    private final Context appContext;
+    private final ExecutorService parseExecutor = Executors.newSingleThreadExecutor();
+    private final List<CSVParser.ProgressListener> progressListeners = new CopyOnWriteArrayList<>();
+    private final Object lock = new Object();
+    // Serializes imports, so each merge starts from the result of the previous one
+    private final Object importLock = new Object();
+
+    private volatile EmissionsDataset dataset;
+    // Checksum of the CSV asset, computed at most once per process; null until needed or if unreadable
+    private volatile Long assetChecksum;
+    private FutureTask<EmissionsDataset> pendingLoad;
+    private int waitingCallers = 0;
+
+    private EmissionsRepository(Context context) {
+        this.appContext = context.getApplicationContext();
+        AppInstrumentation.install();
+    }
+
+    public static EmissionsRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (EmissionsRepository.class) {
+                if (instance == null) {
+                    instance = new EmissionsRepository(context);
+                }
+            }
+        }
+        return instance;
+    }
+
+    // Returns the dataset if it has already been loaded, without blocking
+    public EmissionsDataset peekDataset() {
+        return dataset;
+    }
+
+    /**
+     * Returns the dataset, parsing the CSV first if nobody has done so yet.
+     * Blocks until the data is available, so it must not be called on the main
+     * thread. If the calling thread is interrupted a {@link CancellationException}
+     * is thrown, and the parse itself is cancelled once no caller is waiting on it.
+     * A failed load (e.g. the asset could not be read) is thrown as an
+     * {@link IllegalStateException} and nothing is cached, so the next call retries.
+     */
+    public EmissionsDataset getDataset(CSVParser.ProgressListener progressListener) {
+        EmissionsDataset current = dataset;
+        if (current != null) {
+            return current;
+        }
+
+        FutureTask<EmissionsDataset> load;
+        synchronized (lock) {
+            if (dataset != null) {
+                return dataset;
+            }
+            if (pendingLoad == null) {
+                pendingLoad = new FutureTask<>(this::parseDataset);
+                parseExecutor.execute(pendingLoad);
+            }
+            load = pendingLoad;
+            waitingCallers++;
+            if (progressListener != null) {
+                progressListeners.add(progressListener);
+            }
+        }
+
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for emissions data");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to load emissions data", e.getCause());
+        } finally {
+            synchronized (lock) {
+                waitingCallers--;
+                if (progressListener != null) {
+                    progressListeners.remove(progressListener);
+                }
+                if (load.isDone() && pendingLoad == load && dataset == null) {
+                    // The parse failed; let the next caller retry it
+                    pendingLoad = null;
+                } else if (waitingCallers == 0 && pendingLoad == load && !load.isDone()) {
+                    // Everyone gave up on this parse, so stop it
+                    EmissionsLog.d("EmissionsRepository", "No callers left, cancelling parse");
+                    load.cancel(true);
+                    pendingLoad = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Streams the CSV document at uri and merges it into the dataset (see
+     * {@link EmissionsMerger}). Readers keep getting the previous dataset until
+     * the merge is complete; afterwards peekDataset() and getDataset() return
+     * the merged one. The snapshot keeps the imported data across
+     * restarts until an app update ships a new asset. Blocks like getDataset().
+     */
+    public EmissionsMerger.Result importCsv(Uri uri, CSVParser.ProgressListener progressListener) throws IOException {
+        // Loads the dataset before reading the new file
+        getDataset(null);
+
+        synchronized (importLock) {
+            // Each country is merged as soon as it is parsed, so the update is never held as a whole
+            EmissionsMerger merger = new EmissionsMerger(dataset);
+            new CSVDocumentLoader(appContext).parseCSVUri(uri, merger::add, progressListener);
+            EmissionsMerger.Result result = merger.finish();
+            if (!result.hasChanges()) {
+                if (EmissionsLog.isLoggable(EmissionsLog.DEBUG)) {
+                    EmissionsLog.d("EmissionsRepository", "Import of " + uri + " changed nothing");
+                }
+                return result;
+            }
+
+            EmissionsDataset merged = result.getDataset();
+            synchronized (lock) {
+                dataset = merged;
+            }
+
+            Long checksum = getAssetChecksum();
+            if (checksum != null) {
+                writeSnapshot(merged.getCountries(), checksum, getSourceStamp());
+            }
+            if (EmissionsLog.isLoggable(EmissionsLog.DEBUG)) {
+                EmissionsLog.d("EmissionsRepository", "Imported " + uri + ": " + result.getChangedCountries().size()
+                        + " countries changed (" + result.getAddedCountries() + " new), "
+                        + result.getChangedValues() + " values");
+            }
+            return result;
+        }
+    }
+
+    private EmissionsDataset parseDataset() {
+        List<CountryEmission> countries = loadCountries();
+
+        EmissionsDataset parsed = new EmissionsDataset(countries);
+        synchronized (lock) {
+            dataset = parsed;
+            pendingLoad = null;
+        }
+        if (EmissionsLog.isLoggable(EmissionsLog.DEBUG)) {
+            EmissionsLog.d("EmissionsRepository", "Dataset ready with " + parsed.size() + " countries");
+        }
+        return parsed;
+    }
+
+    // Reads the binary snapshot when it is current, otherwise parses the CSV and refreshes the snapshot
+    private List<CountryEmission> loadCountries() {
+        File snapshotFile = new File(appContext.getFilesDir(), SNAPSHOT_FILE_NAME);
+        long sourceStamp = getSourceStamp();
+
+        EmissionsSnapshot.Header header = EmissionsSnapshot.readHeader(snapshotFile);
+        if (header != null) {
+            // The asset can only change with an app update, so only re-check its checksum then
+            boolean current = header.getSourceStamp() == sourceStamp;
+            if (current) {
+                // Stamps only match when the checksum was verified for this asset, so imports can reuse it
+                assetChecksum = header.getSourceChecksum();
+            } else {
+                Long checksum = getAssetChecksum();
+                current = checksum != null && checksum == header.getSourceChecksum();
+                if (current) {
+                    try {
+                        EmissionsSnapshot.updateSourceStamp(snapshotFile, sourceStamp);
+                    } catch (IOException e) {
+                        Log.w("EmissionsRepository", "Could not update snapshot stamp: " + e.getMessage());
+                    }
+                }
+            }
+
+            if (current) {
+                try {
+                    List<CountryEmission> countries = EmissionsSnapshot.read(snapshotFile);
+                    if (EmissionsLog.isLoggable(EmissionsLog.DEBUG)) {
+                        EmissionsLog.d("EmissionsRepository",
+                                "Loaded " + countries.size() + " countries from snapshot");
+                    }
+                    return countries;
+                } catch (IOException | RuntimeException e) {
+                    Log.w("EmissionsRepository", "Snapshot unreadable, falling back to CSV: " + e.getMessage());
+                }
+            }
+        }
+
+        CSVDocumentLoader loader = new CSVDocumentLoader(appContext);
+        CSVParser.ParseMode parseMode = CSVParser.ParseMode.valueOf(BuildConfig.CSV_PARSE_MODE);
+        loader.setParseMode(parseMode, BuildConfig.CSV_PARSE_THREADS);
+
+        long startTime = SystemClock.elapsedRealtime();
+        List<CountryEmission> countries = loader.parseCSVFile(CSV_FILE_NAME, (processedLines, countriesFound) -> {
+            for (CSVParser.ProgressListener listener : progressListeners) {
+                listener.onProgress(processedLines, countriesFound);
+            }
+        });
+        if (EmissionsLog.isLoggable(EmissionsLog.DEBUG)) {
+            EmissionsLog.d("EmissionsRepository", "Parsed CSV in " + (SystemClock.elapsedRealtime() - startTime)
+                    + " ms (" + parseMode + ", threads=" + BuildConfig.CSV_PARSE_THREADS + ")");
+        }
+
+        if (!countries.isEmpty()) {
+            Long checksum = getAssetChecksum();
+            if (checksum != null) {
+                writeSnapshot(countries, checksum, sourceStamp);
+            }
+        }
+        return countries;
+    }
+
+    private void writeSnapshot(List<CountryEmission> countries, long assetChecksum, long sourceStamp) {
+        File snapshotFile = new File(appContext.getFilesDir(), SNAPSHOT_FILE_NAME);
+        try {
+            EmissionsSnapshot.write(countries, assetChecksum, sourceStamp, snapshotFile);
+            if (EmissionsLog.isLoggable(EmissionsLog.DEBUG)) {
+                EmissionsLog.d("EmissionsRepository", "Wrote snapshot (" + snapshotFile.length() + " bytes)");
+            }
+        } catch (IOException e) {
+            Log.w("EmissionsRepository", "Could not write snapshot: " + e.getMessage());
+        }
+    }
+
+    // Checksums the asset on first use only; it cannot change while the process runs
+    private Long getAssetChecksum() {
+        Long checksum = assetChecksum;
+        if (checksum == null) {
+            checksum = computeAssetChecksum();
+            assetChecksum = checksum;
+        }
+        return checksum;
+    }
+
+    private Long computeAssetChecksum() {
+        try (InputStream inputStream = appContext.getAssets().open(CSV_FILE_NAME)) {
+            return EmissionsSnapshot.checksum(inputStream);
+        } catch (IOException e) {
+            Log.w("EmissionsRepository", "Could not checksum " + CSV_FILE_NAME + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Last install/update time of the APK that ships the asset
+    private long getSourceStamp() {
+        try {
+            return appContext.getPackageManager()
+                    .getPackageInfo(appContext.getPackageName(), 0)
+                    .lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import android.os.Trace;
+import android.util.Log;
+import com.example.co2emissionsanalyzer.BuildConfig;
+
+/**
+ * Connects the core logging and metrics to Android. Core messages go to
+ * logcat (DEBUG and up in debug builds, WARN and up otherwise). With
+ * METRICS_ENABLED the timed phases are also emitted as android.os.Trace
+ * sections, visible in Perfetto and system traces, and the totals can be
+ * printed with {@code adb shell dumpsys activity <package>}.
+ */
+public final class AppInstrumentation {
+
+    private static volatile boolean installed;
+
+    private AppInstrumentation() {
+    }
+
+    public static void install() {
+        if (installed) {
+            return;
+        }
+        installed = true;
+
+        EmissionsLog.setLogger((priority, tag, message) -> Log.println(priority, tag, message),
+                BuildConfig.DEBUG ? EmissionsLog.DEBUG : EmissionsLog.WARN);
+
+        if (BuildConfig.METRICS_ENABLED) {
+            EmissionsMetrics.setTracer(new EmissionsMetrics.Tracer() {
+                @Override
+                public void beginSection(String name) {
+                    Trace.beginSection(name);
+                }
+
+                @Override
+                public void endSection() {
+                    Trace.endSection();
+                }
+            });
+            EmissionsMetrics.setEnabled(true);
+        }
+    }
+}
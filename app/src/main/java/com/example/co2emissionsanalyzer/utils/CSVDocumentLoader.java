@@ -0,0 +1,70 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Opens CSV documents through Android (bundled assets, content Uris) and
+ * parses them with the core {@link CSVParser}.
+ */
+public class CSVDocumentLoader {
+
+    private final Context context;
+    private final CSVParser parser = new CSVParser();
+
+    public CSVDocumentLoader(Context context) {
+        this.context = context;
+    }
+
+    // See CSVParser.setParseMode
+    public void setParseMode(CSVParser.ParseMode parseMode, int parseThreads) {
+        parser.setParseMode(parseMode, parseThreads);
+    }
+
+    public List<CountryEmission> parseCSVFile(String fileName) {
+        return parseCSVFile(fileName, null);
+    }
+
+    /**
+     * Parses the given asset, reporting progress to the listener (if any).
+     * When the calling thread is interrupted the parse stops early and a
+     * {@link CancellationException} is thrown. A read error is thrown as an
+     * {@link UncheckedIOException} rather than returning partial or no data,
+     * so callers never mistake a failed read for an empty file.
+     */
+    public List<CountryEmission> parseCSVFile(String fileName, CSVParser.ProgressListener progressListener) {
+        try {
+            return parser.parse(context.getAssets().open(fileName), progressListener);
+        } catch (IOException e) {
+            Log.e("CSVDocumentLoader", "Error reading CSV file: " + e.getMessage());
+            throw new UncheckedIOException("Cannot read " + fileName, e);
+        }
+    }
+
+    /**
+     * Parses a CSV document from a content Uri, e.g. one picked through the
+     * Storage Access Framework, handing each country to countryListener as
+     * soon as its rows are read. Neither the file nor the parsed countries are
+     * held in memory as a whole, so it may be much larger than the bundled
+     * asset. Rows with an explicit 0 are kept so a merge can apply them.
+     */
+    public void parseCSVUri(Uri uri, CSVParser.CountryListener countryListener,
+                            CSVParser.ProgressListener progressListener) throws IOException {
+        if (EmissionsLog.isLoggable(EmissionsLog.DEBUG)) {
+            EmissionsLog.d("CSVDocumentLoader", "Streaming " + uri);
+        }
+        InputStream inputStream = context.getContentResolver().openInputStream(uri);
+        if (inputStream == null) {
+            throw new FileNotFoundException("Cannot open " + uri);
+        }
+        CSVParser.parseCSVStream(inputStream, true, countryListener, progressListener);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import android.util.LruCache;
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.github.mikephil.charting.data.Entry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Chart-ready emissions series. Each country's series is converted to float
+ * arrays once, and the Entry lists for a year window and point budget are
+ * downsampled with {@link SeriesDownsampler} and cached, so panning or
+ * zooming back to a window reuses the prepared entries.
+ *
+ * Countries are cached by identity, so a reloaded dataset never reuses
+ * entries prepared for an older one.
+ */
+public class ChartSeriesCache {
+    private static final int MAX_COUNTRY_SERIES = 32;
+    private static final int MAX_WINDOWS = 64;
+
+    private static final ChartSeriesCache instance = new ChartSeriesCache();
+
+    // Full series of a country as floats: years[i] and values[i]
+    private static class PreparedSeries {
+        final float[] years;
+        final float[] values;
+
+        PreparedSeries(float[] years, float[] values) {
+            this.years = years;
+            this.values = values;
+        }
+    }
+
+    private static class WindowKey {
+        final CountryEmission country;
+        final int fromYear;
+        final int toYear;
+        final int maxPoints;
+
+        WindowKey(CountryEmission country, int fromYear, int toYear, int maxPoints) {
+            this.country = country;
+            this.fromYear = fromYear;
+            this.toYear = toYear;
+            this.maxPoints = maxPoints;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof WindowKey)) {
+                return false;
+            }
+            WindowKey key = (WindowKey) other;
+            return country == key.country && fromYear == key.fromYear && toYear == key.toYear
+                    && maxPoints == key.maxPoints;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(country);
+            hash = 31 * hash + fromYear;
+            hash = 31 * hash + toYear;
+            return 31 * hash + maxPoints;
+        }
+    }
+
+    private final LruCache<CountryEmission, PreparedSeries> seriesCache = new LruCache<>(MAX_COUNTRY_SERIES);
+    private final LruCache<WindowKey, List<Entry>> entriesCache = new LruCache<>(MAX_WINDOWS);
+
+    public static ChartSeriesCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Entries for the country's emissions between fromYear and toYear
+     * (inclusive, clamped to the years it has data for), reduced to at most
+     * maxPoints points. Years without data inside the range are plotted as 0.
+     * The returned list is shared and must not be modified.
+     */
+    public List<Entry> getEntries(CountryEmission country, int fromYear, int toYear, int maxPoints) {
+        if (country.getYearCount() == 0) {
+            return Collections.emptyList();
+        }
+        int from = Math.max(fromYear, country.getFirstYear());
+        int to = Math.min(toYear, country.getLastYear());
+        if (from > to) {
+            return Collections.emptyList();
+        }
+
+        WindowKey key = new WindowKey(country, from, to, maxPoints);
+        List<Entry> entries = entriesCache.get(key);
+        if (entries == null) {
+            PreparedSeries series = getSeries(country);
+            int offset = country.getFirstYear();
+            int[] indices = SeriesDownsampler.selectIndices(series.years, series.values,
+                    from - offset, to - offset + 1, maxPoints);
+            List<Entry> prepared = new ArrayList<>(indices.length);
+            for (int index : indices) {
+                prepared.add(new Entry(series.years[index], series.values[index]));
+            }
+            entries = Collections.unmodifiableList(prepared);
+            entriesCache.put(key, entries);
+        }
+        return entries;
+    }
+
+    public void clear() {
+        seriesCache.evictAll();
+        entriesCache.evictAll();
+    }
+
+    private PreparedSeries getSeries(CountryEmission country) {
+        PreparedSeries series = seriesCache.get(country);
+        if (series == null) {
+            int firstYear = country.getFirstYear();
+            int length = country.getLastYear() - firstYear + 1;
+            long[] emissions = new long[length];
+            country.copyEmissions(firstYear, country.getLastYear(), emissions, 0);
+
+            float[] years = new float[length];
+            float[] values = new float[length];
+            for (int i = 0; i < length; i++) {
+                years[i] = firstYear + i;
+                values[i] = emissions[i];
+            }
+            series = new PreparedSeries(years, values);
+            seriesCache.put(country, series);
+        }
+        return series;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs data loading work on a background executor and delivers progress and
+ * results on the main thread. A pending load can be cancelled at any time;
+ * cancelled loads never deliver callbacks.
+ */
+public class EmissionsDataLoader {
+
+    public interface LoadTask<T> {
+        T load(CSVParser.ProgressListener progressListener);
+    }
+
+    public interface Callback<T> {
+        void onProgress(int processedLines, int countriesFound);
+
+        void onLoaded(T result);
+
+        void onError(Exception e);
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Future<?> pendingLoad;
+    // Bumped on every load/cancel so callbacks from stale loads are dropped
+    private volatile int generation;
+
+    public synchronized <T> void load(LoadTask<T> task, Callback<T> callback) {
+        cancel();
+        int loadGeneration = generation;
+
+        pendingLoad = executor.submit(() -> {
+            try {
+                T result = task.load((processedLines, countriesFound) ->
+                        post(loadGeneration, () -> callback.onProgress(processedLines, countriesFound)));
+                post(loadGeneration, () -> callback.onLoaded(result));
+            } catch (CancellationException e) {
+                if (EmissionsLog.isLoggable(EmissionsLog.DEBUG)) {
+                    EmissionsLog.d("EmissionsDataLoader", "Load cancelled: " + e.getMessage());
+                }
+            } catch (Exception e) {
+                Log.e("EmissionsDataLoader", "Error loading data: " + e.getMessage());
+                post(loadGeneration, () -> callback.onError(e));
+            }
+        });
+    }
+
+    public synchronized void cancel() {
+        generation++;
+        if (pendingLoad != null) {
+            pendingLoad.cancel(true);
+            pendingLoad = null;
+        }
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    private void post(int loadGeneration, Runnable action) {
+        mainHandler.post(() -> {
+            // Drop anything that was queued before the load got cancelled
+            if (loadGeneration == generation) {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryRow;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Top polluter rows for every year of a range, formatted up front from
+ * {@link YearRankingIndex} so the main screen's year scrubber only does an
+ * array lookup per step. Years without data map to an empty list.
+ */
+public class TopPollutersByYear {
+    private final int firstYear;
+    private final int lastYear;
+    private final List<List<CountryRow>> rowsByYear;
+
+    public TopPollutersByYear(YearRankingIndex rankingIndex, int firstYear, int lastYear, int limit) {
+        this.firstYear = firstYear;
+        this.lastYear = lastYear;
+        rowsByYear = new ArrayList<>(Math.max(lastYear - firstYear + 1, 0));
+        for (int year = firstYear; year <= lastYear; year++) {
+            rowsByYear.add(Collections.unmodifiableList(
+                    CountryRow.forYear(rankingIndex.getTopEmitters(year, limit), year)));
+        }
+    }
+
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    public int getLastYear() {
+        return lastYear;
+    }
+
+    // Rows for the year, highest emitter first; the same list instance every call
+    public List<CountryRow> getRows(int year) {
+        if (year < firstYear || year > lastYear) {
+            return Collections.emptyList();
+        }
+        return rowsByYear.get(year - firstYear);
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.co2emissionsanalyzer.viewmodels;
+
+import android.app.Application;
+import android.net.Uri;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.example.co2emissionsanalyzer.models.EmissionsDataset;
+import com.example.co2emissionsanalyzer.repository.EmissionsRepository;
+import com.example.co2emissionsanalyzer.utils.CSVParser;
+import com.example.co2emissionsanalyzer.utils.CountrySearchIndex;
+import com.example.co2emissionsanalyzer.utils.EmissionsDataLoader;
+import com.example.co2emissionsanalyzer.utils.EmissionsLog;
+import com.example.co2emissionsanalyzer.utils.EmissionsMerger;
+import com.example.co2emissionsanalyzer.utils.TopPollutersByYear;
+import com.example.co2emissionsanalyzer.utils.YearRankingIndex;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+
+public class MainViewModel extends AndroidViewModel {
+
+    private static final int TOP_POLLUTERS_LIMIT = 10;
+    private static final int DEFAULT_DISPLAY_YEAR = 2022;
+    // Range offered by the year scrubber on the main screen
+    public static final int FIRST_SELECTABLE_YEAR = 1750;
+    public static final int LAST_SELECTABLE_YEAR = 2022;
+
+    // Result of the background load: the full dataset plus the top polluters to show
+    public static class LoadResult {
+        private final List<CountryEmission> allCountries;
+        private final List<CountryEmission> topPolluters;
+        private final int displayYear;
+        private final CountrySearchIndex searchIndex;
+        private final TopPollutersByYear topPollutersByYear;
+
+        public LoadResult(List<CountryEmission> allCountries, List<CountryEmission> topPolluters, int displayYear,
+                          CountrySearchIndex searchIndex, TopPollutersByYear topPollutersByYear) {
+            this.allCountries = allCountries;
+            this.topPolluters = topPolluters;
+            this.displayYear = displayYear;
+            this.searchIndex = searchIndex;
+            this.topPollutersByYear = topPollutersByYear;
+        }
+
+        public List<CountryEmission> getAllCountries() {
+            return allCountries;
+        }
+
+        public List<CountryEmission> getTopPolluters() {
+            return topPolluters;
+        }
+
+        public int getDisplayYear() {
+            return displayYear;
+        }
+
+        public CountrySearchIndex getSearchIndex() {
+            return searchIndex;
+        }
+
+        public TopPollutersByYear getTopPollutersByYear() {
+            return topPollutersByYear;
+        }
+    }
+
+    private final EmissionsDataLoader loader = new EmissionsDataLoader();
+    private final EmissionsDataLoader importLoader = new EmissionsDataLoader();
+    private final MutableLiveData<Boolean> importRunning = new MutableLiveData<>(false);
+    private final MutableLiveData<String> importMessage = new MutableLiveData<>();
+    private final MutableLiveData<LoadResult> loadResult = new MutableLiveData<>();
+    private final MutableLiveData<Integer> processedLines = new MutableLiveData<>();
+    private final MutableLiveData<String> loadError = new MutableLiveData<>();
+    private boolean loadStarted = false;
+    // Year picked on the scrubber, kept here so it survives rotation; -1 until the user picks one
+    private int selectedYear = -1;
+
+    public MainViewModel(@NonNull Application application) {
+        super(application);
+    }
+
+    public LiveData<LoadResult> getLoadResult() {
+        return loadResult;
+    }
+
+    public LiveData<Integer> getProcessedLines() {
+        return processedLines;
+    }
+
+    // Message of the last failed load; null once the screen has shown it
+    public LiveData<String> getLoadError() {
+        return loadError;
+    }
+
+    // Call after showing the load error, so a recreated screen does not show it again
+    public void clearLoadError() {
+        loadError.setValue(null);
+    }
+
+    public LiveData<Boolean> getImportRunning() {
+        return importRunning;
+    }
+
+    // Outcome of the last import, for a toast; null once the screen has shown it
+    public LiveData<String> getImportMessage() {
+        return importMessage;
+    }
+
+    // Call after showing the import message, so a recreated screen does not show it again
+    public void clearImportMessage() {
+        importMessage.setValue(null);
+    }
+
+    public int getSelectedYear() {
+        return selectedYear;
+    }
+
+    public void setSelectedYear(int year) {
+        selectedYear = year;
+    }
+
+    // Starts loading the dataset unless a load is already running or done
+    public void loadData() {
+        if (loadStarted) {
+            return;
+        }
+        loadStarted = true;
+
+        loader.load(this::loadInBackground, new EmissionsDataLoader.Callback<LoadResult>() {
+            @Override
+            public void onProgress(int lines, int countriesFound) {
+                processedLines.setValue(lines);
+            }
+
+            @Override
+            public void onLoaded(LoadResult result) {
+                loadResult.setValue(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                loadStarted = false;
+                loadError.setValue(e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Streams the CSV document at uri (e.g. picked through the Storage Access
+     * Framework) and merges it into the shared dataset. When anything changed,
+     * the load result is published again so the screen shows the merged data.
+     */
+    public void importCsv(Uri uri) {
+        importRunning.setValue(true);
+        importLoader.load(progressListener -> {
+            EmissionsRepository repository = EmissionsRepository.getInstance(getApplication());
+            EmissionsMerger.Result merge;
+            try {
+                merge = repository.importCsv(uri, progressListener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e.getMessage(), e);
+            }
+            return new ImportOutcome(merge, merge.hasChanges() ? buildLoadResult(merge.getDataset()) : null);
+        }, new EmissionsDataLoader.Callback<ImportOutcome>() {
+            @Override
+            public void onProgress(int lines, int countriesFound) {
+            }
+
+            @Override
+            public void onLoaded(ImportOutcome outcome) {
+                importRunning.setValue(false);
+                EmissionsMerger.Result merge = outcome.merge;
+                if (!merge.hasChanges()) {
+                    importMessage.setValue("Import finished: the data was already up to date");
+                    return;
+                }
+                loadResult.setValue(outcome.loadResult);
+                importMessage.setValue("Imported " + String.format("%,d", merge.getChangedValues()) + " values for "
+                        + merge.getChangedCountries().size() + " countries (" + merge.getAddedCountries() + " new)");
+            }
+
+            @Override
+            public void onError(Exception e) {
+                importRunning.setValue(false);
+                importMessage.setValue("Import failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private static class ImportOutcome {
+        final EmissionsMerger.Result merge;
+        // Refreshed screen data, or null when the import changed nothing
+        final LoadResult loadResult;
+
+        ImportOutcome(EmissionsMerger.Result merge, LoadResult loadResult) {
+            this.merge = merge;
+            this.loadResult = loadResult;
+        }
+    }
+
+    private LoadResult loadInBackground(CSVParser.ProgressListener progressListener) {
+        // Shared with the other screens, so rotation or a second activity never re-parses
+        EmissionsRepository repository = EmissionsRepository.getInstance(getApplication());
+        EmissionsDataset dataset = repository.getDataset(progressListener);
+        if (EmissionsLog.isLoggable(EmissionsLog.DEBUG)) {
+            EmissionsLog.d("MainViewModel", "Dataset available with " + dataset.size() + " countries");
+        }
+        return buildLoadResult(dataset);
+    }
+
+    private LoadResult buildLoadResult(EmissionsDataset dataset) {
+        // Format the top polluters of every selectable year now, so scrubbing never ranks or formats
+        YearRankingIndex rankingIndex = dataset.getRankingIndex();
+        TopPollutersByYear topPollutersByYear = new TopPollutersByYear(rankingIndex,
+                FIRST_SELECTABLE_YEAR, Math.max(LAST_SELECTABLE_YEAR, rankingIndex.getLatestYearWithData()),
+                TOP_POLLUTERS_LIMIT);
+
+        // Show the most recent year with data, straight from the precomputed ranking
+        int displayYear = rankingIndex.getLatestYearWithData();
+        if (displayYear < 0) {
+            return new LoadResult(dataset.getCountries(), Collections.emptyList(), DEFAULT_DISPLAY_YEAR,
+                    dataset.getSearchIndex(), topPollutersByYear);
+        }
+        List<CountryEmission> topPolluters = rankingIndex.getTopEmitters(displayYear, TOP_POLLUTERS_LIMIT);
+
+        return new LoadResult(dataset.getCountries(), topPolluters, displayYear, dataset.getSearchIndex(),
+                topPollutersByYear);
+    }
+
+    @Override
+    protected void onCleared() {
+        // The owning activity is finishing for good, so stop waiting for the parse
+        loader.shutdown();
+        importLoader.shutdown();
+        super.onCleared();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.co2emissionsanalyzer.models;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CountryRowTest {
+
+    private static CountryEmission country(String name, int ordinal, long emissions2020) {
+        CountryEmission country = new CountryEmission(name, 1000, null, null);
+        country.setOrdinal(ordinal);
+        country.addEmissionData(2020, emissions2020);
+        return country;
+    }
+
+    @Test
+    public void forYear_formatsRankAndEmissions() {
+        CountryEmission china = country("China", 3, 10_000_000_000L);
+        CountryEmission chad = country("Chad", 7, 500);
+
+        List<CountryRow> rows = CountryRow.forYear(Arrays.asList(china, chad), 2020);
+
+        assertEquals(2, rows.size());
+        assertEquals("China", rows.get(0).getName());
+        assertEquals("#1", rows.get(0).getRankText());
+        assertEquals(String.format("%,d tons", 10_000_000_000L), rows.get(0).getEmissionsText());
+        assertEquals(3, rows.get(0).getId());
+        assertEquals("#2", rows.get(1).getRankText());
+        assertEquals(7, rows.get(1).getId());
+    }
+
+    @Test
+    public void forRange_showsTotalOverTheRange() {
+        CountryEmission china = country("China", 0, 100);
+        china.addEmissionData(2021, 300);
+        CountryEmission chad = country("Chad", 1, 50);
+        chad.addEmissionData(2021, 20);
+        EmissionsDataset dataset = new EmissionsDataset(Arrays.asList(china, chad));
+
+        List<CountryRow> rows = CountryRow.forRange(Arrays.asList(china, chad), dataset.getAggregates(), 2020, 2021);
+
+        assertEquals("400 tons", rows.get(0).getEmissionsText());
+        assertEquals("70 tons", rows.get(1).getEmissionsText());
+        assertEquals(CountryRow.forYear(Arrays.asList(china, chad), 2021),
+                CountryRow.forRange(Arrays.asList(china, chad), dataset.getAggregates(), 2021, 2021));
+    }
+
+    @Test
+    public void rows_comparedByContent() {
+        CountryEmission china = country("China", 0, 100);
+        CountryEmission chad = country("Chad", 1, 50);
+
+        List<CountryRow> before = CountryRow.forYear(Arrays.asList(china, chad), 2020);
+        List<CountryRow> same = CountryRow.forYear(Arrays.asList(china, chad), 2020);
+        List<CountryRow> swapped = CountryRow.forYear(Arrays.asList(chad, china), 2020);
+
+        assertEquals(before, same);
+        assertEquals(before.get(0).hashCode(), same.get(0).hashCode());
+        // Same country, but its rank changed, so the row must be rebound
+        assertEquals(before.get(0).getId(), swapped.get(1).getId());
+        assertNotEquals(before.get(0), swapped.get(1));
+    }
+}
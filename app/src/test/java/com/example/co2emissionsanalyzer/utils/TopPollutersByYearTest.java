@@ -0,0 +1,56 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.example.co2emissionsanalyzer.models.CountryRow;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TopPollutersByYearTest {
+
+    private static CountryEmission country(String name, int ordinal, long emissions2000, long emissions2001) {
+        CountryEmission country = new CountryEmission(name, 1000, null, null);
+        country.setOrdinal(ordinal);
+        country.addEmissionData(2000, emissions2000);
+        country.addEmissionData(2001, emissions2001);
+        return country;
+    }
+
+    @Test
+    public void rows_followRankingOfEachYear() {
+        List<CountryEmission> countries = Arrays.asList(
+                country("A", 0, 300, 100),
+                country("B", 1, 200, 0),
+                country("C", 2, 100, 500));
+        TopPollutersByYear byYear = new TopPollutersByYear(new YearRankingIndex(countries), 1999, 2002, 2);
+
+        List<CountryRow> rows2000 = byYear.getRows(2000);
+        assertEquals(2, rows2000.size());
+        assertEquals("A", rows2000.get(0).getName());
+        assertEquals("B", rows2000.get(1).getName());
+        assertEquals("#2", rows2000.get(1).getRankText());
+
+        List<CountryRow> rows2001 = byYear.getRows(2001);
+        assertEquals("C", rows2001.get(0).getName());
+        assertEquals(String.format("%,d tons", 500), rows2001.get(0).getEmissionsText());
+        assertEquals("A", rows2001.get(1).getName());
+
+        // Cached, not rebuilt per lookup
+        assertSame(rows2001, byYear.getRows(2001));
+    }
+
+    @Test
+    public void yearsWithoutData_areEmpty() {
+        List<CountryEmission> countries = Arrays.asList(country("A", 0, 300, 100));
+        TopPollutersByYear byYear = new TopPollutersByYear(new YearRankingIndex(countries), 1999, 2002, 10);
+
+        assertTrue(byYear.getRows(1999).isEmpty());
+        assertTrue(byYear.getRows(2002).isEmpty());
+        assertTrue(byYear.getRows(1750).isEmpty());
+        assertEquals(1999, byYear.getFirstYear());
+        assertEquals(2002, byYear.getLastYear());
+    }
+}
@@ -0,0 +1,29 @@
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    jmh(project(":emissions-core"))
+}
+
+// ./gradlew :benchmark:jmh, results in benchmark/build/results/jmh/results.json
+jmh {
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    // Reports allocation rate and bytes per operation next to every score
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    jvmArgsAppend.add("-Dco2.csv=" + rootProject.file("app/src/main/assets/co2_emission_by_countries.csv").absolutePath)
+}
@@ -0,0 +1,31 @@
+package com.example.co2emissionsanalyzer.benchmark;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.example.co2emissionsanalyzer.models.EmissionsDataset;
+import com.example.co2emissionsanalyzer.utils.CSVParser;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.List;
+
+// The bundled CSV, read once per benchmark fork
+final class BenchmarkData {
+    // Set by the jmh block in build.gradle.kts; the fallback works when run from the benchmark directory
+    private static final String CSV_PATH = System.getProperty("co2.csv",
+            "../app/src/main/assets/co2_emission_by_countries.csv");
+
+    private BenchmarkData() {
+    }
+
+    static byte[] readCsv() throws IOException {
+        return CSVParser.readFully(new FileInputStream(CSV_PATH));
+    }
+
+    static List<CountryEmission> parseCountries() throws IOException {
+        return CSVParser.parseCSVStream(new ByteArrayInputStream(readCsv()), null);
+    }
+
+    static EmissionsDataset loadDataset() throws IOException {
+        return new EmissionsDataset(parseCountries());
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.co2emissionsanalyzer.benchmark;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.example.co2emissionsanalyzer.models.CountryStats;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Per-country aggregates over every country in the dataset
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CountryEmissionBenchmark {
+
+    private List<CountryEmission> countries;
+
+    @Setup
+    public void parse() throws IOException {
+        countries = BenchmarkData.parseCountries();
+    }
+
+    // Stats are cached per country, so resetting the population forces them to be computed again
+    @Benchmark
+    public void computeStats(Blackhole blackhole) {
+        for (CountryEmission country : countries) {
+            country.setPopulation(country.getPopulation());
+            CountryStats stats = country.getStats();
+            blackhole.consume(stats);
+        }
+    }
+
+    @Benchmark
+    public void cachedAggregates(Blackhole blackhole) {
+        for (CountryEmission country : countries) {
+            blackhole.consume(country.getTotalEmissions());
+            blackhole.consume(country.getAverageEmissionsPerCapita());
+            blackhole.consume(country.getYearWithHighestEmissions());
+        }
+    }
+
+    @Benchmark
+    public long emissionsForEveryYear() {
+        long sum = 0;
+        for (CountryEmission country : countries) {
+            for (int year = 1750; year <= 2020; year++) {
+                sum += country.getEmissionsForYear(year);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.co2emissionsanalyzer.benchmark;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.example.co2emissionsanalyzer.models.EmissionsDataset;
+import com.example.co2emissionsanalyzer.utils.CSVParser;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Whole-file parse of the bundled CSV from memory, i.e. what parseCSVFile()
+ * does once the asset is open, plus building the dataset indexes on top.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParseBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ParseModeParam {
+        @Param({"SEQUENTIAL", "PARALLEL"})
+        public CSVParser.ParseMode parseMode;
+    }
+
+    private byte[] csv;
+    private List<CountryEmission> countries;
+
+    @Setup
+    public void readCsv() throws IOException {
+        csv = BenchmarkData.readCsv();
+        countries = BenchmarkData.parseCountries();
+    }
+
+    @Benchmark
+    public List<CountryEmission> parse(ParseModeParam mode) throws IOException {
+        if (mode.parseMode == CSVParser.ParseMode.PARALLEL) {
+            return CSVParser.parseCSVBytesParallel(csv, csv.length, 0, null);
+        }
+        return CSVParser.parseCSVStream(new ByteArrayInputStream(csv), null);
+    }
+
+    // Ranking, search, aggregate and filter indexes over already parsed countries
+    @Benchmark
+    public EmissionsDataset buildIndexes() {
+        return new EmissionsDataset(countries);
+    }
+}
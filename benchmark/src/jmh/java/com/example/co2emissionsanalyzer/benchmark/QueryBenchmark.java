@@ -0,0 +1,79 @@
+package com.example.co2emissionsanalyzer.benchmark;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.example.co2emissionsanalyzer.models.EmissionsDataset;
+import com.example.co2emissionsanalyzer.utils.CSVParser;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The lookups behind the main and filter screens, each as the CSVParser scan
+ * over the country list and as the index lookup the screens actually use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QueryBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class YearParam {
+        @Param({"1900", "2020"})
+        public int year;
+    }
+
+    @State(Scope.Benchmark)
+    public static class NameParam {
+        // Exact match, substring match and a miss
+        @Param({"China", "ivoire", "Atlantis"})
+        public String name;
+    }
+
+    private EmissionsDataset dataset;
+    private List<CountryEmission> countries;
+
+    @Setup
+    public void loadDataset() throws IOException {
+        dataset = BenchmarkData.loadDataset();
+        countries = dataset.getCountries();
+    }
+
+    @Benchmark
+    public List<CountryEmission> topPollutersScan(YearParam param) {
+        return CSVParser.getTopPolluters(countries, param.year, 10);
+    }
+
+    @Benchmark
+    public List<CountryEmission> topPollutersIndexed(YearParam param) {
+        return dataset.getRankingIndex().getTopEmitters(param.year, 10);
+    }
+
+    @Benchmark
+    public CountryEmission highestEmitterScan(YearParam param) {
+        return CSVParser.getHighestEmitterForYear(countries, param.year);
+    }
+
+    @Benchmark
+    public CountryEmission highestEmitterIndexed(YearParam param) {
+        return dataset.getRankingIndex().getHighestEmitter(param.year);
+    }
+
+    // Builds a throwaway search index per call
+    @Benchmark
+    public CountryEmission findCountryByNameScan(NameParam param) {
+        return CSVParser.findCountryByName(countries, param.name);
+    }
+
+    @Benchmark
+    public CountryEmission findCountryByNameIndexed(NameParam param) {
+        return dataset.getSearchIndex().findBestMatch(param.name);
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.co2emissionsanalyzer.models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class CountryEmission {
+    private static final long[] EMPTY = new long[0];
+
+    private String countryName;
+    // Position in the loaded dataset, or -1 when the country is not part of one
+    private int ordinal = -1;
+    private long population;
+    private String percentageOfWorld;
+    private String density;
+    // Numeric forms of the columns above, parsed once at load time; the strings are kept for display
+    private double percentageOfWorldValue = Double.NaN;
+    private double densityValue = Double.NaN;
+    private long area;
+
+    // Emissions stored as a dense primitive series: emissionValues[year - baseYear].
+    // Bit (year - baseYear) of presentYears is set when that year has data.
+    private int baseYear;
+    private long[] emissionValues = EMPTY;
+    private long[] presentYears = EMPTY;
+    private int firstYear;
+    private int lastYear;
+    private int yearCount;
+
+    // Boxed view handed out by getCo2Emissions(), built on first use
+    private HashMap<Integer, Long> co2EmissionsView;
+    // Derived statistics, computed on first use and dropped whenever the series or population changes
+    private CountryStats stats;
+
+    // Constructor
+    public CountryEmission(String countryName, long population, String percentageOfWorld, String density) {
+        this.countryName = countryName;
+        this.population = population;
+        this.percentageOfWorld = percentageOfWorld;
+        this.density = density;
+    }
+
+    // Default constructor
+    public CountryEmission() {
+    }
+
+    // Getters
+    public String getCountryName() {
+        return countryName;
+    }
+
+    /**
+     * Compatibility view of the emissions as a year -> tons map. It is built
+     * lazily from the primitive series; prefer {@link #getEmissionsForYear(int)}
+     * and the year range accessors in new code.
+     */
+    public HashMap<Integer, Long> getCo2Emissions() {
+        if (co2EmissionsView == null) {
+            HashMap<Integer, Long> view = new HashMap<>();
+            for (int year = firstYear; yearCount > 0 && year <= lastYear; year++) {
+                if (hasEmissionsForYear(year)) {
+                    view.put(year, emissionValues[year - baseYear]);
+                }
+            }
+            co2EmissionsView = view;
+        }
+        return co2EmissionsView;
+    }
+
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    public long getPopulation() {
+        return population;
+    }
+
+    public String getPercentageOfWorld() {
+        return percentageOfWorld;
+    }
+
+    public String getDensity() {
+        return density;
+    }
+
+    // Share of the world's land area in percent (0.40 for "0.40%"), or NaN if unknown
+    public double getPercentageOfWorldValue() {
+        return percentageOfWorldValue;
+    }
+
+    // People per km², or NaN if unknown
+    public double getDensityValue() {
+        return densityValue;
+    }
+
+    // Land area in km², or 0 if unknown
+    public long getArea() {
+        return area;
+    }
+
+    // Earliest year with data (only meaningful when getYearCount() > 0)
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    // Latest year with data (only meaningful when getYearCount() > 0)
+    public int getLastYear() {
+        return lastYear;
+    }
+
+    // Number of years that have emissions data
+    public int getYearCount() {
+        return yearCount;
+    }
+
+    public boolean hasEmissionsForYear(int year) {
+        int index = year - baseYear;
+        if (yearCount == 0 || index < 0 || index >= emissionValues.length) {
+            return false;
+        }
+        return (presentYears[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Copies the emissions for fromYear..toYear (inclusive) into target,
+     * starting at targetOffset. Years without data are written as 0.
+     */
+    public void copyEmissions(int fromYear, int toYear, long[] target, int targetOffset) {
+        for (int year = fromYear; year <= toYear; year++) {
+            target[targetOffset + year - fromYear] = hasEmissionsForYear(year) ? emissionValues[year - baseYear] : 0;
+        }
+    }
+
+    // Setters
+    public void setCountryName(String countryName) {
+        this.countryName = countryName;
+    }
+
+    public void setCo2Emissions(HashMap<Integer, Long> co2Emissions) {
+        baseYear = 0;
+        emissionValues = EMPTY;
+        presentYears = EMPTY;
+        firstYear = 0;
+        lastYear = 0;
+        yearCount = 0;
+        co2EmissionsView = null;
+        stats = null;
+        if (co2Emissions != null) {
+            for (Map.Entry<Integer, Long> entry : co2Emissions.entrySet()) {
+                if (entry.getValue() != null) {
+                    addEmissionData(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    public void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+
+    public void setPopulation(long population) {
+        this.population = population;
+        stats = null;
+    }
+
+    public void setPercentageOfWorld(String percentageOfWorld) {
+        this.percentageOfWorld = percentageOfWorld;
+    }
+
+    public void setDensity(String density) {
+        this.density = density;
+    }
+
+    public void setPercentageOfWorldValue(double percentageOfWorldValue) {
+        this.percentageOfWorldValue = percentageOfWorldValue;
+    }
+
+    public void setDensityValue(double densityValue) {
+        this.densityValue = densityValue;
+    }
+
+    public void setArea(long area) {
+        this.area = area;
+    }
+
+    // Utility methods for calculations
+
+    /**
+     * Summary statistics of the series, computed in one pass on first use and
+     * cached until the emissions or the population change. Throws
+     * ArithmeticException if the total does not fit in a long.
+     */
+    public CountryStats getStats() {
+        CountryStats current = stats;
+        if (current == null) {
+            current = CountryStats.compute(baseYear, emissionValues, presentYears, firstYear, lastYear,
+                    yearCount, population);
+            stats = current;
+        }
+        return current;
+    }
+
+    /**
+     * Sum of all yearly emissions in tons. Uses checked arithmetic, so a sum
+     * that does not fit in a long throws ArithmeticException instead of
+     * silently wrapping around.
+     */
+    public long getTotalEmissions() {
+        return getStats().getTotalEmissions();
+    }
+
+    public double getAverageEmissionsPerCapita() {
+        return getStats().getAveragePerCapita();
+    }
+
+    public int getYearWithHighestEmissions() {
+        return getStats().getPeakYear();
+    }
+
+    public long getEmissionsForYear(int year) {
+        return hasEmissionsForYear(year) ? emissionValues[year - baseYear] : 0;
+    }
+
+    // Emissions in the year per km² of land, or NaN if the area is unknown
+    public double getEmissionsPerSquareKm(int year) {
+        return area > 0 ? (double) getEmissionsForYear(year) / area : Double.NaN;
+    }
+
+    public void addEmissionData(int year, long emissions) {
+        ensureYear(year);
+        int index = year - baseYear;
+        if ((presentYears[index >>> 6] & (1L << index)) == 0) {
+            presentYears[index >>> 6] |= 1L << index;
+            yearCount++;
+        }
+        emissionValues[index] = emissions;
+        if (yearCount == 1) {
+            firstYear = year;
+            lastYear = year;
+        } else {
+            firstYear = Math.min(firstYear, year);
+            lastYear = Math.max(lastYear, year);
+        }
+        co2EmissionsView = null;
+        stats = null;
+    }
+
+    // Marks the year as having no data, as if it had never been added
+    public void removeEmissionData(int year) {
+        if (!hasEmissionsForYear(year)) {
+            return;
+        }
+        int index = year - baseYear;
+        presentYears[index >>> 6] &= ~(1L << index);
+        emissionValues[index] = 0;
+        yearCount--;
+        if (yearCount > 0) {
+            while (!hasEmissionsForYear(firstYear)) {
+                firstYear++;
+            }
+            while (!hasEmissionsForYear(lastYear)) {
+                lastYear--;
+            }
+        }
+        co2EmissionsView = null;
+        stats = null;
+    }
+
+    /**
+     * Independent copy of this country, including its ordinal. Used to change
+     * a country without touching the instance a loaded dataset hands out.
+     */
+    public CountryEmission copy() {
+        CountryEmission copy = new CountryEmission(countryName, population, percentageOfWorld, density);
+        copy.ordinal = ordinal;
+        copy.percentageOfWorldValue = percentageOfWorldValue;
+        copy.densityValue = densityValue;
+        copy.area = area;
+        copy.baseYear = baseYear;
+        copy.emissionValues = emissionValues.clone();
+        copy.presentYears = presentYears.clone();
+        copy.firstYear = firstYear;
+        copy.lastYear = lastYear;
+        copy.yearCount = yearCount;
+        return copy;
+    }
+
+    // Drops spare capacity left over from growing the series while parsing
+    public void trimToSize() {
+        if (yearCount == 0) {
+            baseYear = 0;
+            emissionValues = EMPTY;
+            presentYears = EMPTY;
+        } else if (firstYear != baseYear || lastYear - baseYear + 1 != emissionValues.length) {
+            resize(firstYear, lastYear - firstYear + 1);
+        }
+    }
+
+    // Makes sure the series covers the given year, growing it if needed
+    private void ensureYear(int year) {
+        if (emissionValues.length == 0) {
+            baseYear = year;
+            emissionValues = new long[8];
+            presentYears = new long[1];
+            return;
+        }
+
+        int index = year - baseYear;
+        if (index >= 0 && index < emissionValues.length) {
+            return;
+        }
+
+        int newBase = Math.min(baseYear, year);
+        int newEnd = Math.max(baseYear + emissionValues.length - 1, year);
+        int needed = newEnd - newBase + 1;
+        // Grow with headroom at the end, since the CSV lists years in ascending order
+        int capacity = newBase == baseYear ? Math.max(needed, emissionValues.length * 2) : needed;
+        resize(newBase, capacity);
+    }
+
+    private void resize(int newBase, int capacity) {
+        long[] values = new long[capacity];
+        long[] present = new long[(capacity + 63) >>> 6];
+        for (int year = firstYear; yearCount > 0 && year <= lastYear; year++) {
+            if (hasEmissionsForYear(year)) {
+                int index = year - newBase;
+                values[index] = emissionValues[year - baseYear];
+                present[index >>> 6] |= 1L << index;
+            }
+        }
+        baseYear = newBase;
+        emissionValues = values;
+        presentYears = present;
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.co2emissionsanalyzer.models;
+
+import java.util.Arrays;
+
+/**
+ * Summary statistics of one country's emissions series, computed in a single
+ * pass and cached by {@link CountryEmission#getStats()}. Years are 0 when the
+ * series has no matching year; ratios are NaN when they are undefined.
+ */
+public class CountryStats {
+    private final int yearCount;
+    private final long totalEmissions;
+    private final double meanEmissions;
+    private final double medianEmissions;
+    private final double averagePerCapita;
+    private final int peakYear;
+    private final long peakEmissions;
+    private final int firstYearAboveZero;
+    private final int latestYear;
+    private final long latestEmissions;
+    private final double compoundAnnualGrowthRate;
+    // Years that set a new high (above every earlier year), ascending, with their emissions
+    private final int[] recordYears;
+    private final long[] recordEmissions;
+
+    private CountryStats(int yearCount, long totalEmissions, double meanEmissions, double medianEmissions,
+                         double averagePerCapita, int peakYear, long peakEmissions, int firstYearAboveZero,
+                         int latestYear, long latestEmissions, double compoundAnnualGrowthRate,
+                         int[] recordYears, long[] recordEmissions) {
+        this.yearCount = yearCount;
+        this.totalEmissions = totalEmissions;
+        this.meanEmissions = meanEmissions;
+        this.medianEmissions = medianEmissions;
+        this.averagePerCapita = averagePerCapita;
+        this.peakYear = peakYear;
+        this.peakEmissions = peakEmissions;
+        this.firstYearAboveZero = firstYearAboveZero;
+        this.latestYear = latestYear;
+        this.latestEmissions = latestEmissions;
+        this.compoundAnnualGrowthRate = compoundAnnualGrowthRate;
+        this.recordYears = recordYears;
+        this.recordEmissions = recordEmissions;
+    }
+
+    /**
+     * Computes the stats straight from CountryEmission's primitive series:
+     * values[year - baseYear] holds a year's emissions and bit (year - baseYear)
+     * of presentBits marks it as present. The sum uses checked arithmetic and
+     * throws ArithmeticException if it does not fit in a long.
+     */
+    static CountryStats compute(int baseYear, long[] values, long[] presentBits, int firstYear, int lastYear,
+                                int yearCount, long population) {
+        long total = 0;
+        int count = 0;
+        long[] presentValues = new long[yearCount];
+        int peakYear = 0;
+        long peakEmissions = 0;
+        int firstAboveZero = 0;
+        int lastAboveZero = 0;
+        int latestYear = 0;
+        long latestEmissions = 0;
+        int[] recordYears = new int[yearCount];
+        long[] recordEmissions = new long[yearCount];
+        int recordCount = 0;
+
+        for (int year = firstYear; yearCount > 0 && year <= lastYear; year++) {
+            int index = year - baseYear;
+            if ((presentBits[index >>> 6] & (1L << index)) == 0) {
+                continue;
+            }
+            long value = values[index];
+            total = Math.addExact(total, value);
+            presentValues[count++] = value;
+            latestYear = year;
+            latestEmissions = value;
+            if (value > peakEmissions) {
+                peakEmissions = value;
+                peakYear = year;
+                recordYears[recordCount] = year;
+                recordEmissions[recordCount++] = value;
+            }
+            if (value > 0) {
+                if (firstAboveZero == 0) {
+                    firstAboveZero = year;
+                }
+                lastAboveZero = year;
+            }
+        }
+
+        double mean = count > 0 ? (double) total / count : 0;
+        double median = 0;
+        if (count > 0) {
+            // The median needs the values in order; sorting a copy keeps the series untouched
+            Arrays.sort(presentValues, 0, count);
+            median = count % 2 == 1
+                    ? presentValues[count / 2]
+                    : (presentValues[count / 2 - 1] + (double) presentValues[count / 2]) / 2;
+        }
+
+        double growthRate = Double.NaN;
+        if (lastAboveZero > firstAboveZero) {
+            double first = values[firstAboveZero - baseYear];
+            double last = values[lastAboveZero - baseYear];
+            growthRate = Math.pow(last / first, 1.0 / (lastAboveZero - firstAboveZero)) - 1;
+        }
+
+        double perCapita = population == 0 ? 0 : (double) total / population;
+        return new CountryStats(count, total, mean, median, perCapita, peakYear, peakEmissions, firstAboveZero,
+                latestYear, latestEmissions, growthRate, Arrays.copyOf(recordYears, recordCount),
+                Arrays.copyOf(recordEmissions, recordCount));
+    }
+
+    // Number of years with data
+    public int getYearCount() {
+        return yearCount;
+    }
+
+    // Sum of all yearly emissions in tons
+    public long getTotalEmissions() {
+        return totalEmissions;
+    }
+
+    // Mean of the yearly emissions over the years with data
+    public double getMeanEmissions() {
+        return meanEmissions;
+    }
+
+    // Median of the yearly emissions over the years with data
+    public double getMedianEmissions() {
+        return medianEmissions;
+    }
+
+    // Total emissions divided by the current population, or 0 without a population
+    public double getAveragePerCapita() {
+        return averagePerCapita;
+    }
+
+    // First year reaching the highest emissions, or 0 if no year is above zero
+    public int getPeakYear() {
+        return peakYear;
+    }
+
+    public long getPeakEmissions() {
+        return peakEmissions;
+    }
+
+    public int getFirstYearAboveZero() {
+        return firstYearAboveZero;
+    }
+
+    // Most recent year with data and its emissions
+    public int getLatestYear() {
+        return latestYear;
+    }
+
+    public long getLatestEmissions() {
+        return latestEmissions;
+    }
+
+    // Latest emissions as a fraction of the peak, or NaN if there is no peak
+    public double getLatestShareOfPeak() {
+        return peakEmissions > 0 ? (double) latestEmissions / peakEmissions : Double.NaN;
+    }
+
+    /**
+     * Peak to date: the highest emissions of any year up to and including the
+     * given year, or 0 if no year up to then is above zero. For the latest
+     * year this is the all-time peak.
+     */
+    public long getPeakToDate(int year) {
+        int record = recordAtOrBefore(year);
+        return record >= 0 ? recordEmissions[record] : 0;
+    }
+
+    // Year in which getPeakToDate(year) was set, or 0 if there is none
+    public int getPeakToDateYear(int year) {
+        int record = recordAtOrBefore(year);
+        return record >= 0 ? recordYears[record] : 0;
+    }
+
+    // Number of years that set a new high over every earlier year
+    public int getRecordYearCount() {
+        return recordYears.length;
+    }
+
+    /**
+     * Compound annual growth rate between the first and the last year above
+     * zero (0.02 means 2% a year), or NaN if there are fewer than two such years.
+     */
+    public double getCompoundAnnualGrowthRate() {
+        return compoundAnnualGrowthRate;
+    }
+
+    // Index of the last record year not after year, or -1
+    private int recordAtOrBefore(int year) {
+        int index = Arrays.binarySearch(recordYears, year);
+        return index >= 0 ? index : -index - 2;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.co2emissionsanalyzer.models;
+
+import com.example.co2emissionsanalyzer.utils.ComparisonCache;
+import com.example.co2emissionsanalyzer.utils.CountryFilterEngine;
+import com.example.co2emissionsanalyzer.utils.CountrySearchIndex;
+import com.example.co2emissionsanalyzer.utils.EmissionsAggregates;
+import com.example.co2emissionsanalyzer.utils.EmissionsMetrics;
+import com.example.co2emissionsanalyzer.utils.YearRankingIndex;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable snapshot of every country parsed from the emissions CSV, plus the indexes built over it
+public class EmissionsDataset {
+    private final List<CountryEmission> countries;
+    private final Map<String, CountryEmission> countriesByName;
+    private final YearRankingIndex rankingIndex;
+    private final CountrySearchIndex searchIndex;
+    private final EmissionsAggregates aggregates;
+    private final CountryFilterEngine filterEngine;
+    private final ComparisonCache comparisonCache;
+
+    public EmissionsDataset(List<CountryEmission> countries) {
+        long start = EmissionsMetrics.start(EmissionsMetrics.Timer.INDEX_BUILD);
+        this.countries = Collections.unmodifiableList(new ArrayList<>(countries));
+        this.countriesByName = new HashMap<>();
+        for (int ordinal = 0; ordinal < this.countries.size(); ordinal++) {
+            CountryEmission country = this.countries.get(ordinal);
+            country.setOrdinal(ordinal);
+            // The series is final from here on, so compute the stats now rather than on the UI thread
+            country.getStats();
+            countriesByName.put(country.getCountryName(), country);
+        }
+        this.rankingIndex = new YearRankingIndex(this.countries);
+        this.searchIndex = new CountrySearchIndex(this.countries);
+        this.aggregates = new EmissionsAggregates(this.countries, rankingIndex);
+        this.filterEngine = new CountryFilterEngine(this.countries, aggregates);
+        this.comparisonCache = new ComparisonCache(this.countries, aggregates);
+        EmissionsMetrics.stop(EmissionsMetrics.Timer.INDEX_BUILD, start);
+    }
+
+    private EmissionsDataset(List<CountryEmission> countries, Map<String, CountryEmission> countriesByName,
+                             YearRankingIndex rankingIndex, CountrySearchIndex searchIndex,
+                             EmissionsAggregates aggregates) {
+        this.countries = countries;
+        this.countriesByName = countriesByName;
+        this.rankingIndex = rankingIndex;
+        this.searchIndex = searchIndex;
+        this.aggregates = aggregates;
+        this.filterEngine = new CountryFilterEngine(countries, aggregates);
+        this.comparisonCache = new ComparisonCache(countries, aggregates);
+    }
+
+    /**
+     * New dataset in which some countries were replaced or added, built from
+     * this one without re-indexing everything. updatedCountries must keep
+     * every existing country at its ordinal (changed ones as new instances)
+     * and may append new ones at the end. changedOrdinals marks replaced and
+     * added countries, changedYears (bit = year) every year in which any of
+     * their values differ. This dataset is left untouched.
+     */
+    public EmissionsDataset withChanges(List<CountryEmission> updatedCountries, BitSet changedOrdinals,
+                                        BitSet changedYears) {
+        long start = EmissionsMetrics.start(EmissionsMetrics.Timer.INDEX_BUILD);
+        List<CountryEmission> merged = Collections.unmodifiableList(new ArrayList<>(updatedCountries));
+        Map<String, CountryEmission> byName = new HashMap<>(countriesByName);
+        for (int ordinal = changedOrdinals.nextSetBit(0); ordinal >= 0; ordinal = changedOrdinals.nextSetBit(ordinal + 1)) {
+            CountryEmission country = merged.get(ordinal);
+            country.setOrdinal(ordinal);
+            country.getStats();
+            byName.put(country.getCountryName(), country);
+        }
+
+        YearRankingIndex mergedRanking = rankingIndex.withChanges(merged, changedYears);
+        // Names only change when countries are added
+        CountrySearchIndex mergedSearch = merged.size() == countries.size()
+                ? searchIndex.withCountries(merged)
+                : new CountrySearchIndex(merged);
+        EmissionsAggregates mergedAggregates = aggregates.withChanges(merged, mergedRanking, changedOrdinals,
+                changedYears);
+        EmissionsDataset dataset = new EmissionsDataset(merged, byName, mergedRanking, mergedSearch, mergedAggregates);
+        EmissionsMetrics.stop(EmissionsMetrics.Timer.INDEX_BUILD, start);
+        return dataset;
+    }
+
+    public List<CountryEmission> getCountries() {
+        return countries;
+    }
+
+    // Country at the given position in the dataset (see CountryEmission.getOrdinal())
+    public CountryEmission getCountry(int ordinal) {
+        return ordinal >= 0 && ordinal < countries.size() ? countries.get(ordinal) : null;
+    }
+
+    public YearRankingIndex getRankingIndex() {
+        return rankingIndex;
+    }
+
+    public CountrySearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    public EmissionsAggregates getAggregates() {
+        return aggregates;
+    }
+
+    public CountryFilterEngine getFilterEngine() {
+        return filterEngine;
+    }
+
+    public ComparisonCache getComparisonCache() {
+        return comparisonCache;
+    }
+
+    // Exact (case-sensitive) lookup by the name used in the CSV
+    public CountryEmission getCountryByName(String countryName) {
+        return countryName != null ? countriesByName.get(countryName) : null;
+    }
+
+    public int size() {
+        return countries.size();
+    }
+
+    public boolean isEmpty() {
+        return countries.isEmpty();
+    }
+}
@@ -0,0 +1,480 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parses the emissions CSV format from streams, channels or memory, plus the
+ * list-based queries over the parsed countries. Has no Android dependencies;
+ * the app opens assets and content Uris with CSVDocumentLoader and hands the
+ * streams to this class.
+ */
+public class CSVParser {
+    // How often (in data lines) progress is reported to the listener
+    private static final int PROGRESS_INTERVAL = 1000;
+    // Index of the country name column, used to split chunks at country boundaries
+    private static final int COUNTRY_COLUMN = 0;
+
+    public enum ParseMode {
+        // One tokenizer over the whole stream
+        SEQUENTIAL,
+        // The file is split at country boundaries and the chunks are parsed on a thread pool
+        PARALLEL
+    }
+
+    private ParseMode parseMode = ParseMode.SEQUENTIAL;
+    private int parseThreads = 0;
+
+    public interface ProgressListener {
+        void onProgress(int processedLines, int countriesFound);
+    }
+
+    // Receives each country of a streamed parse once its rows are complete
+    public interface CountryListener {
+        void onCountry(CountryEmission country) throws IOException;
+    }
+
+    /**
+     * Selects how {@link #parse} reads its input. A thread count of 0 or less
+     * uses one thread per available core.
+     */
+    public void setParseMode(ParseMode parseMode, int parseThreads) {
+        this.parseMode = parseMode;
+        this.parseThreads = parseThreads;
+    }
+
+    /**
+     * Parses the stream with the configured mode and closes it. PARALLEL reads
+     * the whole stream into memory first. When the calling thread is
+     * interrupted the parse stops early and a {@link CancellationException}
+     * is thrown.
+     */
+    public List<CountryEmission> parse(InputStream inputStream, ProgressListener progressListener) throws IOException {
+        if (parseMode == ParseMode.PARALLEL) {
+            byte[] data = readFully(inputStream);
+            return parseCSVBytesParallel(data, data.length, parseThreads, progressListener);
+        }
+        return parseCSVStream(inputStream, progressListener);
+    }
+
+    // Same as parse(InputStream), for file and socket channels; the channel is closed when done
+    public List<CountryEmission> parse(ReadableByteChannel channel, ProgressListener progressListener) throws IOException {
+        return parse(Channels.newInputStream(channel), progressListener);
+    }
+
+    /**
+     * Parses CSV data from any stream on the calling thread; the stream is
+     * closed when done. Lines are read with {@link CsvTokenizer}, so no
+     * per-line Strings or arrays are created.
+     */
+    public static List<CountryEmission> parseCSVStream(InputStream inputStream, ProgressListener progressListener) throws IOException {
+        return parseCSVStream(inputStream, false, progressListener);
+    }
+
+    /**
+     * Same as {@link #parseCSVStream(InputStream, ProgressListener)}, but with
+     * keepZeroRows a row with an explicit emission value of 0 is kept as a
+     * year that has data, with value 0. Imports need this to tell a value
+     * corrected to 0 from a year the file does not mention; blank values are
+     * still skipped.
+     */
+    public static List<CountryEmission> parseCSVStream(InputStream inputStream, boolean keepZeroRows,
+                                                       ProgressListener progressListener) throws IOException {
+        Map<String, CountryEmission> countryMap = new LinkedHashMap<>();
+
+        long start = EmissionsMetrics.start(EmissionsMetrics.Timer.PARSE);
+        try (InputStream input = inputStream) {
+            CsvTokenizer tokenizer = new CsvTokenizer(input);
+            int processedLines = parseRecords(tokenizer, true, keepZeroRows, countryMap, null, new AtomicInteger(),
+                    progressListener);
+
+            if (progressListener != null) {
+                progressListener.onProgress(processedLines, countryMap.size());
+            }
+
+            return toCountryList(countryMap);
+        } finally {
+            EmissionsMetrics.stop(EmissionsMetrics.Timer.PARSE, start);
+        }
+    }
+
+    /**
+     * Streams CSV data to countryListener instead of collecting it: each
+     * country is handed over as soon as a row of another country follows it,
+     * and only that one country is held in memory, so the file may be far
+     * larger than the heap. Rows are expected to be grouped by country; a
+     * country whose rows are split up is passed on once per group. Zero rows
+     * are handled as in {@link #parseCSVStream(InputStream, boolean, ProgressListener)}.
+     * The stream is closed when done.
+     */
+    public static void parseCSVStream(InputStream inputStream, boolean keepZeroRows, CountryListener countryListener,
+                                      ProgressListener progressListener) throws IOException {
+        Map<String, CountryEmission> countryMap = new LinkedHashMap<>();
+
+        long start = EmissionsMetrics.start(EmissionsMetrics.Timer.PARSE);
+        try (InputStream input = inputStream) {
+            CsvTokenizer tokenizer = new CsvTokenizer(input);
+            parseRecords(tokenizer, true, keepZeroRows, countryMap, countryListener, new AtomicInteger(),
+                    progressListener);
+        } finally {
+            EmissionsMetrics.stop(EmissionsMetrics.Timer.PARSE, start);
+        }
+    }
+
+    /**
+     * Parses CSV data held in memory on several threads. The data is cut into
+     * one chunk per thread, each boundary moved forward to the first line of a
+     * new country, and the partial results are merged in file order, so the
+     * result is identical to {@link #parseCSVStream}. Chunk boundaries are
+     * found by scanning for line breaks, so quoted fields must not contain any.
+     */
+    public static List<CountryEmission> parseCSVBytesParallel(byte[] data, int length, int threads,
+                                                              ProgressListener progressListener) throws IOException {
+        long start = EmissionsMetrics.start(EmissionsMetrics.Timer.PARSE);
+        try {
+            return parseChunks(data, length, threads, progressListener);
+        } finally {
+            EmissionsMetrics.stop(EmissionsMetrics.Timer.PARSE, start);
+        }
+    }
+
+    private static List<CountryEmission> parseChunks(byte[] data, int length, int threads,
+                                                     ProgressListener progressListener) throws IOException {
+        int threadCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        int[] boundaries = findChunkBoundaries(data, length, threadCount);
+        int chunkCount = boundaries.length - 1;
+
+        AtomicInteger processedLines = new AtomicInteger();
+        List<Callable<Map<String, CountryEmission>>> chunks = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            int chunkStart = boundaries[i];
+            int chunkEnd = boundaries[i + 1];
+            boolean firstChunk = i == 0;
+            chunks.add(() -> {
+                Map<String, CountryEmission> partial = new LinkedHashMap<>();
+                CsvTokenizer tokenizer = new CsvTokenizer(data, chunkStart, chunkEnd - chunkStart);
+                parseRecords(tokenizer, firstChunk, false, partial, null, processedLines, progressListener);
+                return partial;
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threadCount, chunkCount)));
+        try {
+            Map<String, CountryEmission> countryMap = new LinkedHashMap<>();
+            for (Future<Map<String, CountryEmission>> chunk : pool.invokeAll(chunks)) {
+                mergeInto(countryMap, chunk.get());
+            }
+
+            if (progressListener != null) {
+                progressListener.onProgress(processedLines.get(), countryMap.size());
+            }
+            if (EmissionsLog.isLoggable(EmissionsLog.DEBUG)) {
+                EmissionsLog.d("CSVParser", "Parsed " + chunkCount + " chunks on " + threadCount + " threads");
+            }
+
+            return toCountryList(countryMap);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("CSV parsing cancelled");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("CSV chunk failed", cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    public static byte[] readFully(InputStream inputStream) throws IOException {
+        try (InputStream input = inputStream) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(input.available(), 64 * 1024));
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        }
+    }
+
+    /**
+     * Parses every record the tokenizer yields into countryMap and returns the
+     * number of data lines processed. processedLines is shared between chunks
+     * so progress covers the whole file. Parsed and rejected rows are added to
+     * the metrics once per call rather than per row.
+     *
+     * With a countryListener, each country is passed to it and dropped from
+     * countryMap when a row of another country starts, and the last one at
+     * the end, so countryMap never holds more than one country.
+     */
+    private static int parseRecords(CsvTokenizer tokenizer, boolean hasHeader, boolean keepZeroRows,
+                                    Map<String, CountryEmission> countryMap, CountryListener countryListener,
+                                    AtomicInteger processedLines, ProgressListener progressListener) throws IOException {
+        boolean isFirstLine = hasHeader;
+        int chunkLines = 0;
+        int rejectedLines = 0;
+        // Countries already passed to countryListener
+        int passedCountries = 0;
+        CountryEmission country = null;
+
+        while (tokenizer.nextRecord()) {
+            int lineCount = tokenizer.getLineNumber();
+
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("CSV parsing cancelled at line " + lineCount);
+            }
+
+            // Skip empty lines
+            if (tokenizer.isBlankRecord()) {
+                continue;
+            }
+
+            if (isFirstLine) {
+                // Skip header line
+                isFirstLine = false;
+                continue;
+            }
+
+            // Columns: Country,Code,Calling Code,Year,CO2 emission (Tons),Population(2022),Area,% of World,Density(km2)
+            if (tokenizer.getFieldCount() < 9) {
+                rejectedLines++;
+                if (EmissionsLog.isLoggable(EmissionsLog.WARN)) {
+                    EmissionsLog.w("CSVParser", "Line " + lineCount + " has insufficient columns: " + tokenizer.getFieldCount());
+                }
+                continue;
+            }
+
+            int year = tokenizer.parseInt(3, Integer.MIN_VALUE);
+            if (year == Integer.MIN_VALUE) {
+                rejectedLines++;
+                if (EmissionsLog.isLoggable(EmissionsLog.WARN)) {
+                    EmissionsLog.w("CSVParser", "Error parsing line " + lineCount + ": invalid year");
+                }
+                continue;
+            }
+
+            // Rows are grouped by country, so usually the previous country matches
+            if (country == null || !tokenizer.fieldEquals(COUNTRY_COLUMN, country.getCountryName())) {
+                if (countryListener != null && country != null) {
+                    passCountry(country, countryMap, countryListener);
+                    passedCountries++;
+                }
+                String countryName = tokenizer.getString(COUNTRY_COLUMN);
+                country = countryMap.get(countryName);
+                if (country == null) {
+                    country = new CountryEmission();
+                    country.setCountryName(countryName);
+                    country.setPopulation(tokenizer.parseLong(5, 0));
+                    country.setArea(tokenizer.parseLong(6, 0));
+                    country.setPercentageOfWorld(tokenizer.getString(7));
+                    country.setPercentageOfWorldValue(tokenizer.parseLeadingNumber(7, Double.NaN));
+                    country.setDensity(tokenizer.getString(8));
+                    country.setDensityValue(tokenizer.parseLeadingNumber(8, Double.NaN));
+                    countryMap.put(countryName, country);
+                }
+            }
+
+            // Add emissions data for this year (whole tons; large emitters exceed the int range)
+            long co2Emissions = tokenizer.parseLong(4, -1);
+            if (co2Emissions > 0 || (keepZeroRows && co2Emissions == 0)) {
+                country.addEmissionData(year, co2Emissions);
+            }
+
+            chunkLines++;
+            int totalLines = processedLines.incrementAndGet();
+
+            // Report progress every PROGRESS_INTERVAL lines
+            if (progressListener != null && totalLines % PROGRESS_INTERVAL == 0) {
+                progressListener.onProgress(totalLines, passedCountries + countryMap.size());
+            }
+        }
+        if (countryListener != null && country != null) {
+            passCountry(country, countryMap, countryListener);
+            passedCountries++;
+        }
+        if (countryListener != null && progressListener != null) {
+            progressListener.onProgress(processedLines.get(), passedCountries);
+        }
+        EmissionsMetrics.count(EmissionsMetrics.Counter.ROWS_PARSED, chunkLines);
+        EmissionsMetrics.count(EmissionsMetrics.Counter.ROWS_REJECTED, rejectedLines);
+        return chunkLines;
+    }
+
+    private static void passCountry(CountryEmission country, Map<String, CountryEmission> countryMap,
+                                    CountryListener countryListener) throws IOException {
+        countryMap.remove(country.getCountryName());
+        country.trimToSize();
+        countryListener.onCountry(country);
+    }
+
+    /**
+     * Splits data into up to chunkCount ranges, returned as boundary offsets
+     * (first = 0, last = length). Every boundary after the first is the start
+     * of a line whose country differs from the line before it.
+     */
+    private static int[] findChunkBoundaries(byte[] data, int length, int chunkCount) {
+        List<Integer> boundaries = new ArrayList<>();
+        boundaries.add(0);
+        int previous = 0;
+        for (int i = 1; i < chunkCount; i++) {
+            int boundary = nextCountryStart(data, length, Math.max(previous, (int) ((long) length * i / chunkCount)));
+            if (boundary >= length) {
+                break;
+            }
+            if (boundary > previous) {
+                boundaries.add(boundary);
+                previous = boundary;
+            }
+        }
+        boundaries.add(length);
+
+        int[] result = new int[boundaries.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = boundaries.get(i);
+        }
+        return result;
+    }
+
+    // Offset of the first line at or after from whose country column differs from the line before
+    private static int nextCountryStart(byte[] data, int length, int from) {
+        int lineStart = nextLineStart(data, length, from);
+        while (lineStart < length) {
+            int next = nextLineStart(data, length, lineStart);
+            if (next >= length) {
+                return length;
+            }
+            if (!sameCountry(data, length, lineStart, next)) {
+                return next;
+            }
+            lineStart = next;
+        }
+        return length;
+    }
+
+    private static int nextLineStart(byte[] data, int length, int from) {
+        int i = from;
+        while (i < length && data[i] != '\n') {
+            i++;
+        }
+        return Math.min(i + 1, length);
+    }
+
+    // Compares the first column of the lines starting at a and b
+    private static boolean sameCountry(byte[] data, int length, int a, int b) {
+        while (a < length && b < length) {
+            byte left = data[a];
+            byte right = data[b];
+            boolean leftEnd = left == ',' || left == '\n' || left == '\r';
+            boolean rightEnd = right == ',' || right == '\n' || right == '\r';
+            if (leftEnd || rightEnd) {
+                return leftEnd && rightEnd;
+            }
+            if (left != right) {
+                return false;
+            }
+            a++;
+            b++;
+        }
+        return false;
+    }
+
+    // Merges a chunk's countries into the result, combining series if a country spans chunks
+    private static void mergeInto(Map<String, CountryEmission> countryMap, Map<String, CountryEmission> partial) {
+        for (Map.Entry<String, CountryEmission> entry : partial.entrySet()) {
+            CountryEmission existing = countryMap.get(entry.getKey());
+            if (existing == null) {
+                countryMap.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+            CountryEmission addition = entry.getValue();
+            for (int year = addition.getFirstYear(); addition.getYearCount() > 0 && year <= addition.getLastYear(); year++) {
+                if (addition.hasEmissionsForYear(year)) {
+                    existing.addEmissionData(year, addition.getEmissionsForYear(year));
+                }
+            }
+        }
+    }
+
+    private static List<CountryEmission> toCountryList(Map<String, CountryEmission> countryMap) {
+        // Convert map to list, dropping spare capacity from the growing series
+        List<CountryEmission> countries = new ArrayList<>(countryMap.values());
+        for (CountryEmission country : countries) {
+            country.trimToSize();
+        }
+        if (EmissionsLog.isLoggable(EmissionsLog.DEBUG)) {
+            EmissionsLog.d("CSVParser", "Successfully parsed " + countries.size() + " countries");
+        }
+        return countries;
+    }
+
+    public static List<CountryEmission> getTopPolluters(List<CountryEmission> countries, int year, int limit) {
+        long start = EmissionsMetrics.start(EmissionsMetrics.Timer.QUERY);
+        // Only countries with data for the specified year take part; ties keep list order
+        List<CountryEmission> topPolluters = TopKSelector.select(countries, emissionsInYear(year), limit);
+        EmissionsMetrics.stop(EmissionsMetrics.Timer.QUERY, start);
+
+        if (EmissionsLog.isLoggable(EmissionsLog.DEBUG)) {
+            EmissionsLog.d("CSVParser", "getTopPolluters: returning top " + topPolluters.size() + " of "
+                    + countries.size() + " countries for " + year);
+        }
+        return topPolluters;
+    }
+
+    public static CountryEmission getHighestEmitterForYear(List<CountryEmission> countries, int year) {
+        long start = EmissionsMetrics.start(EmissionsMetrics.Timer.QUERY);
+        List<CountryEmission> top = TopKSelector.select(countries, emissionsInYear(year), 1);
+        CountryEmission highest = top.isEmpty() ? null : top.get(0);
+        EmissionsMetrics.stop(EmissionsMetrics.Timer.QUERY, start);
+
+        if (EmissionsLog.isLoggable(EmissionsLog.DEBUG)) {
+            EmissionsLog.d("CSVParser", "getHighestEmitterForYear " + year + ": " +
+                    (highest != null ? highest.getCountryName() + " (" + highest.getEmissionsForYear(year) + " tons)" : "None"));
+        }
+        return highest;
+    }
+
+    // Emissions in the year as a ranking score; years without emissions are left out.
+    // Yearly values stay far below 2^53, so the conversion to double is exact.
+    private static TopKSelector.Metric emissionsInYear(int year) {
+        return country -> {
+            long emissions = country.getEmissionsForYear(year);
+            return emissions > 0 ? emissions : Double.NaN;
+        };
+    }
+
+    /**
+     * Best ranked match for the name (exact, then prefix, then substring).
+     * Builds a throwaway index, so callers holding an EmissionsDataset should
+     * use its search index instead.
+     */
+    public static CountryEmission findCountryByName(List<CountryEmission> countries, String name) {
+        // The search itself is timed by CountrySearchIndex
+        CountryEmission match = new CountrySearchIndex(countries).findBestMatch(name);
+
+        if (EmissionsLog.isLoggable(EmissionsLog.DEBUG)) {
+            EmissionsLog.d("CSVParser", "findCountryByName '" + name + "' in " + countries.size() + " countries: "
+                    + (match != null ? match.getCountryName() : "no match"));
+        }
+        return match;
+    }
+}
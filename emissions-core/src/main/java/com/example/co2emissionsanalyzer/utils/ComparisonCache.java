@@ -0,0 +1,72 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds {@link EmissionsComparison}s for selections of countries and keeps
+ * the most recent ones, so switching metric, rotating the screen or going
+ * back to an earlier window reuses the computed series. A selection is a
+ * list of ordinals; its order matters because the first country is the
+ * reference.
+ */
+public class ComparisonCache {
+    private static final int MAX_CACHED_COMPARISONS = 16;
+
+    private final List<CountryEmission> countries;
+    private final EmissionsAggregates aggregates;
+    // "ordinal,ordinal,...:fromYear:toYear" -> comparison, least recently used first
+    private final Map<String, EmissionsComparison> comparisons =
+            new LinkedHashMap<String, EmissionsComparison>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, EmissionsComparison> eldest) {
+                    return size() > MAX_CACHED_COMPARISONS;
+                }
+            };
+
+    public ComparisonCache(List<CountryEmission> countries, EmissionsAggregates aggregates) {
+        this.countries = countries;
+        this.aggregates = aggregates;
+    }
+
+    /**
+     * Comparison of the countries at the given ordinals, in that order, for
+     * fromYear..toYear inclusive. The returned instance may be shared.
+     */
+    public synchronized EmissionsComparison compare(int[] ordinals, int fromYear, int toYear) {
+        if (ordinals.length == 0) {
+            throw new IllegalArgumentException("No countries selected");
+        }
+        if (toYear < fromYear) {
+            throw new IllegalArgumentException("Invalid year window " + fromYear + "-" + toYear);
+        }
+
+        StringBuilder keyBuilder = new StringBuilder(ordinals.length * 4 + 12);
+        for (int i = 0; i < ordinals.length; i++) {
+            if (ordinals[i] < 0 || ordinals[i] >= countries.size()) {
+                throw new IllegalArgumentException("Unknown country ordinal " + ordinals[i]);
+            }
+            if (i > 0) {
+                keyBuilder.append(',');
+            }
+            keyBuilder.append(ordinals[i]);
+        }
+        String key = keyBuilder.append(':').append(fromYear).append(':').append(toYear).toString();
+
+        EmissionsComparison comparison = comparisons.get(key);
+        if (comparison == null) {
+            long start = EmissionsMetrics.start(EmissionsMetrics.Timer.QUERY);
+            List<CountryEmission> selection = new ArrayList<>(ordinals.length);
+            for (int ordinal : ordinals) {
+                selection.add(countries.get(ordinal));
+            }
+            comparison = new EmissionsComparison(selection, aggregates, fromYear, toYear);
+            comparisons.put(key, comparison);
+            EmissionsMetrics.stop(EmissionsMetrics.Timer.QUERY, start);
+        }
+        return comparison;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates {@link CountryQuery} filters with sorted column indexes instead
+ * of testing every country against every condition. Each range condition is
+ * two binary searches in a sorted column that yield a bitmap of matching
+ * ordinals; AND and OR are bitmap intersections and unions.
+ *
+ * Population, density and area columns are built once from the values
+ * parsed at load time. Emission columns depend on the year range, so they
+ * are built from {@link EmissionsAggregates} range totals on first use and
+ * a few recent ranges are kept.
+ */
+public class CountryFilterEngine {
+    private static final int MAX_CACHED_RANGES = 8;
+
+    // Values of one column sorted ascending, with the ordinal each value belongs to
+    private static class SortedColumn {
+        final double[] values;
+        final int[] ordinals;
+
+        SortedColumn(double[] valuesByOrdinal) {
+            int count = 0;
+            for (double value : valuesByOrdinal) {
+                if (!Double.isNaN(value)) {
+                    count++;
+                }
+            }
+            values = new double[count];
+            ordinals = new int[count];
+            int index = 0;
+            for (int ordinal = 0; ordinal < valuesByOrdinal.length; ordinal++) {
+                if (!Double.isNaN(valuesByOrdinal[ordinal])) {
+                    values[index] = valuesByOrdinal[ordinal];
+                    ordinals[index] = ordinal;
+                    index++;
+                }
+            }
+            sort(values, ordinals);
+        }
+
+        BitSet range(double min, double max) {
+            BitSet result = new BitSet(ordinals.length);
+            for (int i = firstAtLeast(min); i < values.length && values[i] <= max; i++) {
+                result.set(ordinals[i]);
+            }
+            return result;
+        }
+
+        private int firstAtLeast(double min) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[middle] < min) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    private final List<CountryEmission> countries;
+    private final EmissionsAggregates aggregates;
+    private final Map<CountryQuery.Column, SortedColumn> staticColumns = new EnumMap<>(CountryQuery.Column.class);
+    // "fromYear:toYear" -> emission columns for that range, least recently used first
+    private final Map<String, Map<CountryQuery.Column, SortedColumn>> rangeColumns =
+            new LinkedHashMap<String, Map<CountryQuery.Column, SortedColumn>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map<CountryQuery.Column, SortedColumn>> eldest) {
+                    return size() > MAX_CACHED_RANGES;
+                }
+            };
+
+    public CountryFilterEngine(List<CountryEmission> countries, EmissionsAggregates aggregates) {
+        this.countries = countries;
+        this.aggregates = aggregates;
+
+        double[] populations = new double[countries.size()];
+        double[] densities = new double[countries.size()];
+        double[] areas = new double[countries.size()];
+        for (int ordinal = 0; ordinal < countries.size(); ordinal++) {
+            CountryEmission country = countries.get(ordinal);
+            populations[ordinal] = country.getPopulation() > 0 ? country.getPopulation() : Double.NaN;
+            densities[ordinal] = country.getDensityValue();
+            areas[ordinal] = country.getArea() > 0 ? country.getArea() : Double.NaN;
+        }
+        staticColumns.put(CountryQuery.Column.POPULATION, new SortedColumn(populations));
+        staticColumns.put(CountryQuery.Column.DENSITY, new SortedColumn(densities));
+        staticColumns.put(CountryQuery.Column.AREA, new SortedColumn(areas));
+    }
+
+    /**
+     * Countries matching the query for fromYear..toYear, ordered by their total
+     * emissions in that range, highest first (ties keep dataset order).
+     */
+    public synchronized List<CountryEmission> filter(CountryQuery query, int fromYear, int toYear) {
+        long start = EmissionsMetrics.start(EmissionsMetrics.Timer.QUERY);
+        BitSet matches = evaluate(query, fromYear, toYear);
+        TopKSelector selector = new TopKSelector(matches.cardinality());
+        for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+            selector.offer(countries.get(ordinal), aggregates.getCountryTotal(ordinal, fromYear, toYear));
+        }
+        List<CountryEmission> result = selector.getResult();
+        EmissionsMetrics.stop(EmissionsMetrics.Timer.QUERY, start);
+        return result;
+    }
+
+    // Ordinals of the countries matching the query for fromYear..toYear
+    public synchronized BitSet evaluate(CountryQuery query, int fromYear, int toYear) {
+        switch (query.type) {
+            case RANGE:
+                return column(query.column, fromYear, toYear).range(query.min, query.max);
+            case AND: {
+                BitSet result = new BitSet(countries.size());
+                result.set(0, countries.size());
+                for (CountryQuery child : query.children) {
+                    result.and(evaluate(child, fromYear, toYear));
+                    if (result.isEmpty()) {
+                        break;
+                    }
+                }
+                return result;
+            }
+            case OR: {
+                BitSet result = new BitSet(countries.size());
+                for (CountryQuery child : query.children) {
+                    result.or(evaluate(child, fromYear, toYear));
+                }
+                return result;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown query type: " + query.type);
+        }
+    }
+
+    private SortedColumn column(CountryQuery.Column column, int fromYear, int toYear) {
+        SortedColumn staticColumn = staticColumns.get(column);
+        if (staticColumn != null) {
+            return staticColumn;
+        }
+
+        String rangeKey = fromYear + ":" + toYear;
+        Map<CountryQuery.Column, SortedColumn> columns = rangeColumns.get(rangeKey);
+        if (columns == null) {
+            double[] totals = new double[countries.size()];
+            double[] perCapita = new double[countries.size()];
+            double[] perSquareKm = new double[countries.size()];
+            for (int ordinal = 0; ordinal < countries.size(); ordinal++) {
+                CountryEmission country = countries.get(ordinal);
+                long total = aggregates.getCountryTotal(ordinal, fromYear, toYear);
+                totals[ordinal] = total;
+                perCapita[ordinal] = country.getPopulation() > 0 ? (double) total / country.getPopulation() : Double.NaN;
+                perSquareKm[ordinal] = country.getArea() > 0 ? (double) total / country.getArea() : Double.NaN;
+            }
+            columns = new EnumMap<>(CountryQuery.Column.class);
+            columns.put(CountryQuery.Column.EMISSIONS, new SortedColumn(totals));
+            columns.put(CountryQuery.Column.EMISSIONS_PER_CAPITA, new SortedColumn(perCapita));
+            columns.put(CountryQuery.Column.EMISSIONS_PER_SQUARE_KM, new SortedColumn(perSquareKm));
+            rangeColumns.put(rangeKey, columns);
+        }
+        return columns.get(column);
+    }
+
+    // Sorts values ascending and applies the same moves to ordinals; stable, so equal values keep ordinal order
+    private static void sort(double[] values, int[] ordinals) {
+        int count = values.length;
+        double[] valueScratch = new double[count];
+        int[] ordinalScratch = new int[count];
+        for (int width = 1; width < count; width *= 2) {
+            for (int left = 0; left < count - width; left += 2 * width) {
+                int middle = left + width;
+                int right = Math.min(left + 2 * width, count);
+                int i = left;
+                int j = middle;
+                int k = left;
+                while (i < middle && j < right) {
+                    if (values[j] < values[i]) {
+                        valueScratch[k] = values[j];
+                        ordinalScratch[k++] = ordinals[j++];
+                    } else {
+                        valueScratch[k] = values[i];
+                        ordinalScratch[k++] = ordinals[i++];
+                    }
+                }
+                while (i < middle) {
+                    valueScratch[k] = values[i];
+                    ordinalScratch[k++] = ordinals[i++];
+                }
+                while (j < right) {
+                    valueScratch[k] = values[j];
+                    ordinalScratch[k++] = ordinals[j++];
+                }
+                System.arraycopy(valueScratch, left, values, left, right - left);
+                System.arraycopy(ordinalScratch, left, ordinals, left, right - left);
+            }
+        }
+    }
+}
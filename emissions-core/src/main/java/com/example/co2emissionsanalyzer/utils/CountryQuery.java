@@ -0,0 +1,72 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Filter over countries, evaluated by {@link CountryFilterEngine}. A query is
+ * either a range condition on one column or an AND/OR of other queries.
+ * Emission columns refer to the year range the query is evaluated for.
+ */
+public class CountryQuery {
+
+    public enum Column {
+        // Total emissions in the year range, in tons
+        EMISSIONS,
+        // Total emissions in the year range divided by population, in tons per person
+        EMISSIONS_PER_CAPITA,
+        // Total emissions in the year range divided by land area, in tons per km²
+        EMISSIONS_PER_SQUARE_KM,
+        POPULATION,
+        // People per km²
+        DENSITY,
+        // Land area in km²
+        AREA
+    }
+
+    enum Type { RANGE, AND, OR }
+
+    final Type type;
+    final Column column;
+    final double min;
+    final double max;
+    final List<CountryQuery> children;
+
+    private CountryQuery(Type type, Column column, double min, double max, List<CountryQuery> children) {
+        this.type = type;
+        this.column = column;
+        this.min = min;
+        this.max = max;
+        this.children = children;
+    }
+
+    // Countries whose value for the column is between min and max, inclusive.
+    // Countries without a value (e.g. no density listed) never match.
+    public static CountryQuery range(Column column, double min, double max) {
+        return new CountryQuery(Type.RANGE, column, min, max, Collections.emptyList());
+    }
+
+    public static CountryQuery atLeast(Column column, double min) {
+        return range(column, min, Double.POSITIVE_INFINITY);
+    }
+
+    // Countries matching every query; with no queries, every country
+    public static CountryQuery and(CountryQuery... queries) {
+        return and(Arrays.asList(queries));
+    }
+
+    public static CountryQuery and(List<CountryQuery> queries) {
+        return new CountryQuery(Type.AND, null, 0, 0, Collections.unmodifiableList(new ArrayList<>(queries)));
+    }
+
+    // Countries matching at least one query; with no queries, none
+    public static CountryQuery or(CountryQuery... queries) {
+        return or(Arrays.asList(queries));
+    }
+
+    public static CountryQuery or(List<CountryQuery> queries) {
+        return new CountryQuery(Type.OR, null, 0, 0, Collections.unmodifiableList(new ArrayList<>(queries)));
+    }
+}
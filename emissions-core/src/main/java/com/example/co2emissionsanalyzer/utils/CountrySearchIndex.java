@@ -0,0 +1,264 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Country name search, built once when the dataset is loaded. Names are
+ * normalized (lowercase, accents and punctuation removed) and indexed two
+ * ways: a sorted array of every word start for prefix lookups, and a
+ * trigram index that narrows down candidates for substring matches.
+ *
+ * Results are ranked exact match first, then names starting with the query,
+ * then names with a word starting with it, then any other substring match.
+ * Within a rank shorter names come first, then dataset order.
+ */
+public class CountrySearchIndex {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private static final int NO_MATCH = -1;
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int WORD_PREFIX = 2;
+    private static final int SUBSTRING = 3;
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final List<CountryEmission> countries;
+    private final String[] normalizedNames;
+    // Name suffixes starting at each word, sorted, with the country and offset they belong to
+    private final String[] prefixKeys;
+    private final int[] prefixOwners;
+    private final int[] prefixOffsets;
+    // Trigram -> ascending positions of the countries whose name contains it
+    private final Map<String, int[]> gramPostings;
+
+    public CountrySearchIndex(List<CountryEmission> countries) {
+        this.countries = countries;
+        int count = countries.size();
+        normalizedNames = new String[count];
+
+        List<PrefixEntry> entries = new ArrayList<>();
+        Map<String, List<Integer>> grams = new HashMap<>();
+        for (int position = 0; position < count; position++) {
+            String name = normalize(countries.get(position).getCountryName());
+            normalizedNames[position] = name;
+            if (name.isEmpty()) {
+                continue;
+            }
+
+            for (int offset = 0; offset < name.length(); offset++) {
+                if (offset == 0 || name.charAt(offset - 1) == ' ') {
+                    entries.add(new PrefixEntry(name.substring(offset), position, offset));
+                }
+            }
+            for (int start = 0; start + GRAM_LENGTH <= name.length(); start++) {
+                String gram = name.substring(start, start + GRAM_LENGTH);
+                List<Integer> postings = grams.get(gram);
+                if (postings == null) {
+                    postings = new ArrayList<>();
+                    grams.put(gram, postings);
+                }
+                // Positions are added in ascending order, so only the last one can repeat
+                if (postings.isEmpty() || postings.get(postings.size() - 1) != position) {
+                    postings.add(position);
+                }
+            }
+        }
+
+        Collections.sort(entries, (a, b) -> a.key.compareTo(b.key));
+        prefixKeys = new String[entries.size()];
+        prefixOwners = new int[entries.size()];
+        prefixOffsets = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            PrefixEntry entry = entries.get(i);
+            prefixKeys[i] = entry.key;
+            prefixOwners[i] = entry.owner;
+            prefixOffsets[i] = entry.offset;
+        }
+
+        gramPostings = new HashMap<>(grams.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : grams.entrySet()) {
+            List<Integer> postings = entry.getValue();
+            int[] positions = new int[postings.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = postings.get(i);
+            }
+            gramPostings.put(entry.getKey(), positions);
+        }
+    }
+
+    // Shares every lookup structure of source; only the countries handed out differ
+    private CountrySearchIndex(CountrySearchIndex source, List<CountryEmission> countries) {
+        this.countries = countries;
+        normalizedNames = source.normalizedNames;
+        prefixKeys = source.prefixKeys;
+        prefixOwners = source.prefixOwners;
+        prefixOffsets = source.prefixOffsets;
+        gramPostings = source.gramPostings;
+    }
+
+    /**
+     * The same index over a new list of countries with the same names in the
+     * same order, e.g. after a merge replaced some countries with updated
+     * copies. Nothing is re-indexed.
+     */
+    public CountrySearchIndex withCountries(List<CountryEmission> countries) {
+        if (countries.size() != normalizedNames.length) {
+            throw new IllegalArgumentException("Expected " + normalizedNames.length + " countries, got "
+                    + countries.size());
+        }
+        return new CountrySearchIndex(this, countries);
+    }
+
+    /**
+     * Lowercases the text, strips accents and collapses anything that is not
+     * a letter or digit into single spaces, so "Côte d'Ivoire" and
+     * "cote d ivoire" compare equal.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String folded = COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        return NON_ALPHANUMERIC.matcher(folded).replaceAll(" ").trim();
+    }
+
+    // Up to limit countries matching the query, best match first
+    public List<CountryEmission> search(String query, int limit) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        long start = EmissionsMetrics.start(EmissionsMetrics.Timer.QUERY);
+        try {
+            return rankMatches(normalizedQuery, limit);
+        } finally {
+            EmissionsMetrics.stop(EmissionsMetrics.Timer.QUERY, start);
+        }
+    }
+
+    private List<CountryEmission> rankMatches(String normalizedQuery, int limit) {
+        int[] ranks = new int[normalizedNames.length];
+        Arrays.fill(ranks, NO_MATCH);
+
+        // Exact, prefix and word-prefix matches are one contiguous run of the sorted keys
+        for (int i = lowerBound(normalizedQuery); i < prefixKeys.length && prefixKeys[i].startsWith(normalizedQuery); i++) {
+            int owner = prefixOwners[i];
+            int rank;
+            if (prefixOffsets[i] != 0) {
+                rank = WORD_PREFIX;
+            } else {
+                rank = normalizedNames[owner].length() == normalizedQuery.length() ? EXACT : PREFIX;
+            }
+            if (ranks[owner] == NO_MATCH || rank < ranks[owner]) {
+                ranks[owner] = rank;
+            }
+        }
+
+        // Remaining substring matches, checked only against candidates sharing every trigram
+        int[] candidates = substringCandidates(normalizedQuery);
+        for (int position : candidates) {
+            if (ranks[position] == NO_MATCH && normalizedNames[position].contains(normalizedQuery)) {
+                ranks[position] = SUBSTRING;
+            }
+        }
+
+        // Lower rank and shorter name score higher; equal scores keep dataset order
+        TopKSelector selector = new TopKSelector(limit);
+        for (int position = 0; position < ranks.length; position++) {
+            if (ranks[position] != NO_MATCH) {
+                double score = -((double) ranks[position] * 1_000_000 + normalizedNames[position].length());
+                selector.offer(countries.get(position), score);
+            }
+        }
+        return selector.getResult();
+    }
+
+    // Best ranked match for the query, or null if nothing matches
+    public CountryEmission findBestMatch(String query) {
+        List<CountryEmission> matches = search(query, 1);
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = prefixKeys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (prefixKeys[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int[] substringCandidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            // Too short for trigrams; with a few hundred names a plain scan is cheap
+            int[] all = new int[normalizedNames.length];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] candidates = null;
+        for (int start = 0; start + GRAM_LENGTH <= query.length(); start++) {
+            int[] postings = gramPostings.get(query.substring(start, start + GRAM_LENGTH));
+            if (postings == null) {
+                return new int[0];
+            }
+            candidates = candidates == null ? postings : intersect(candidates, postings);
+            if (candidates.length == 0) {
+                break;
+            }
+        }
+        return candidates;
+    }
+
+    // Intersection of two ascending arrays
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static class PrefixEntry {
+        final String key;
+        final int owner;
+        final int offset;
+
+        PrefixEntry(String key, int owner, int offset) {
+            this.key = key;
+            this.owner = owner;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming CSV tokenizer that works directly on a reusable byte buffer.
+ * Each call to {@link #nextRecord()} only records where the fields of the
+ * next line start and end; numbers are parsed in place from those bytes, and
+ * a String is only created when {@link #getString(int)} is called.
+ *
+ * Supports quoted fields (with "" escapes and embedded line breaks) and both
+ * \n and \r\n line endings. Text is decoded as UTF-8 when the bytes are valid
+ * UTF-8 and as ISO-8859-1 otherwise, which is what the bundled asset uses for
+ * the "km²" suffix.
+ */
+public class CsvTokenizer {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FAST_PATH_DIGITS = 18;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final InputStream input;
+    private byte[] buffer;
+    private int bufferLength;
+    private int position;
+    private boolean endOfInput;
+
+    // Field boundaries of the current record, as offsets into buffer
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    // Bit i is set when field i contains an escaped ("") quote
+    private long escapedFields;
+    private int fieldCount;
+    private int fieldStart;
+    private int recordStart;
+    private int lineNumber;
+
+    private CharsetDecoder utf8Decoder;
+
+    public CsvTokenizer(InputStream input) {
+        this(input, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CsvTokenizer(InputStream input, int bufferSize) {
+        this.input = input;
+        this.buffer = new byte[Math.max(bufferSize, 16)];
+    }
+
+    // Tokenizes data[offset, offset + length) in place, without copying it
+    public CsvTokenizer(byte[] data, int offset, int length) {
+        this.input = null;
+        this.buffer = data;
+        this.position = offset;
+        this.bufferLength = offset + length;
+        this.endOfInput = true;
+    }
+
+    /**
+     * Advances to the next record. Returns false at the end of the input.
+     * Field accessors refer to this record until the next call.
+     */
+    public boolean nextRecord() throws IOException {
+        // Everything before the new record can be overwritten by the next refill
+        recordStart = position;
+        fieldCount = 0;
+        escapedFields = 0;
+
+        if (position >= bufferLength && !fill()) {
+            return false;
+        }
+        lineNumber++;
+
+        fieldStart = position;
+        boolean quoted = false;
+        boolean inQuotes = false;
+        while (true) {
+            if (position >= bufferLength && !fill()) {
+                // Last line without a trailing newline
+                addField(fieldStart, position, quoted);
+                return true;
+            }
+
+            byte b = buffer[position];
+            if (inQuotes) {
+                if (b == '"') {
+                    if (peek(1) == '"') {
+                        escapedFields |= 1L << Math.min(fieldCount, 63);
+                        position += 2;
+                        continue;
+                    }
+                    inQuotes = false;
+                }
+                position++;
+            } else if (b == ',') {
+                addField(fieldStart, position, quoted);
+                position++;
+                fieldStart = position;
+                quoted = false;
+            } else if (b == '\n' || b == '\r') {
+                addField(fieldStart, position, quoted);
+                position++;
+                if (b == '\r' && peek(0) == '\n') {
+                    position++;
+                }
+                return true;
+            } else {
+                if (b == '"' && position == fieldStart) {
+                    quoted = true;
+                    inQuotes = true;
+                }
+                position++;
+            }
+        }
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    // Line number of the current record (1-based, counted in records)
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    // True for lines that contain nothing but whitespace
+    public boolean isBlankRecord() {
+        return fieldCount == 1 && isEmpty(0);
+    }
+
+    public boolean isEmpty(int field) {
+        return trimmedStart(field) >= trimmedEnd(field);
+    }
+
+    /**
+     * Decodes the (trimmed) field into a String. This is the only accessor
+     * that allocates.
+     */
+    public String getString(int field) {
+        int start = trimmedStart(field);
+        int end = trimmedEnd(field);
+        if (start >= end) {
+            return "";
+        }
+        String value = decode(start, end - start);
+        if ((escapedFields & (1L << Math.min(field, 63))) != 0) {
+            value = value.replace("\"\"", "\"");
+        }
+        return value;
+    }
+
+    // Compares the field with a String without allocating when the field is plain ASCII
+    public boolean fieldEquals(int field, String value) {
+        int start = trimmedStart(field);
+        int end = trimmedEnd(field);
+        if (value == null || end - start != value.length() || (escapedFields & (1L << Math.min(field, 63))) != 0) {
+            return value != null && getString(field).equals(value);
+        }
+        for (int i = start; i < end; i++) {
+            byte b = buffer[i];
+            if (b < 0) {
+                return getString(field).equals(value);
+            }
+            if (b != value.charAt(i - start)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int parseInt(int field, int defaultValue) {
+        long value = parseLong(field, Long.MIN_VALUE);
+        if (value == Long.MIN_VALUE || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return defaultValue;
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses the field as a whole number. Values written with a fraction or
+     * an exponent (e.g. "1.04E+11") are parsed as doubles and truncated.
+     */
+    public long parseLong(int field, long defaultValue) {
+        int start = trimmedStart(field);
+        int end = trimmedEnd(field);
+        if (start >= end) {
+            return defaultValue;
+        }
+
+        int i = start;
+        boolean negative = buffer[i] == '-';
+        if (negative || buffer[i] == '+') {
+            i++;
+        }
+        if (i >= end || end - i > MAX_FAST_PATH_DIGITS) {
+            return (long) parseDouble(field, defaultValue);
+        }
+
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                double parsed = parseDouble(field, Double.NaN);
+                return Double.isNaN(parsed) ? defaultValue : (long) parsed;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses the field as a double. Plain decimal and scientific notation with
+     * up to 15 significant digits are handled in place and are exactly rounded;
+     * anything else falls back to Double.parseDouble.
+     */
+    public double parseDouble(int field, double defaultValue) {
+        int start = trimmedStart(field);
+        int end = trimmedEnd(field);
+        if (start >= end) {
+            return defaultValue;
+        }
+
+        int i = start;
+        boolean negative = buffer[i] == '-';
+        if (negative || buffer[i] == '+') {
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenDot = false;
+        boolean anyDigit = false;
+        for (; i < end; i++) {
+            byte b = buffer[i];
+            if (b >= '0' && b <= '9') {
+                anyDigit = true;
+                if (mantissa == 0 && b == '0') {
+                    if (seenDot) {
+                        fractionDigits++;
+                    }
+                    continue;
+                }
+                if (++digits > MAX_FAST_PATH_DIGITS) {
+                    return slowParseDouble(start, end, defaultValue);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (seenDot) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                break;
+            }
+        }
+        if (!anyDigit) {
+            return slowParseDouble(start, end, defaultValue);
+        }
+
+        int exponent = 0;
+        if (i < end) {
+            byte b = buffer[i];
+            if (b != 'e' && b != 'E') {
+                return slowParseDouble(start, end, defaultValue);
+            }
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+                negativeExponent = buffer[i] == '-';
+                i++;
+            }
+            if (i >= end) {
+                return defaultValue;
+            }
+            for (; i < end; i++) {
+                int digit = buffer[i] - '0';
+                if (digit < 0 || digit > 9 || exponent > 1000) {
+                    return slowParseDouble(start, end, defaultValue);
+                }
+                exponent = exponent * 10 + digit;
+            }
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+
+        int power = exponent - fractionDigits;
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (mantissa < MAX_EXACT_MANTISSA && power >= -22 && power <= 22) {
+            // Both operands are exact doubles, so a single operation rounds correctly
+            value = power >= 0 ? mantissa * POWERS_OF_TEN[power] : mantissa / POWERS_OF_TEN[-power];
+        } else {
+            return slowParseDouble(start, end, defaultValue);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses the number a field starts with, ignoring thousands separators and
+     * whatever follows it, e.g. "0.40%" gives 0.4 and "1,924/km²" gives 1924.
+     * Returns defaultValue if the field does not start with a digit.
+     */
+    public double parseLeadingNumber(int field, double defaultValue) {
+        int start = trimmedStart(field);
+        int end = trimmedEnd(field);
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenDot = false;
+        boolean anyDigit = false;
+        for (int i = start; i < end; i++) {
+            byte b = buffer[i];
+            if (b >= '0' && b <= '9') {
+                anyDigit = true;
+                if (mantissa == 0 && b == '0') {
+                    if (seenDot) {
+                        fractionDigits++;
+                    }
+                    continue;
+                }
+                if (++digits > MAX_FAST_PATH_DIGITS) {
+                    return defaultValue;
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (seenDot) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && !seenDot) {
+                seenDot = true;
+            } else if (b != ',' || seenDot) {
+                break;
+            }
+        }
+        if (!anyDigit) {
+            return defaultValue;
+        }
+        if (fractionDigits == 0) {
+            return mantissa;
+        }
+        return fractionDigits <= 22 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa / Math.pow(10, fractionDigits);
+    }
+
+    private double slowParseDouble(int start, int end, double defaultValue) {
+        try {
+            return Double.parseDouble(new String(buffer, start, end - start, StandardCharsets.ISO_8859_1));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private void addField(int start, int end, boolean quoted) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+        if (quoted) {
+            // Drop the surrounding quotes; anything after the closing quote is kept
+            start++;
+            int closing = end - 1;
+            while (closing > start && buffer[closing] != '"') {
+                closing--;
+            }
+            if (closing >= start && buffer[closing] == '"') {
+                end = closing;
+            }
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private int trimmedStart(int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        while (start < end && (buffer[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimmedEnd(int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        while (end > start && (buffer[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    // Looks ahead without consuming; refills the buffer if needed. Returns -1 at the end.
+    private int peek(int offset) throws IOException {
+        if (position + offset >= bufferLength && (!fill() || position + offset >= bufferLength)) {
+            return -1;
+        }
+        return buffer[position + offset];
+    }
+
+    /**
+     * Moves the current record to the front of the buffer, rebasing every
+     * stored offset, and reads more input after it. Returns false when no
+     * more input is available.
+     */
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+
+        int keep = bufferLength - recordStart;
+        if (recordStart > 0) {
+            System.arraycopy(buffer, recordStart, buffer, 0, keep);
+            int shift = recordStart;
+            for (int f = 0; f < fieldCount; f++) {
+                fieldStarts[f] -= shift;
+                fieldEnds[f] -= shift;
+            }
+            fieldStart -= shift;
+            position -= shift;
+            recordStart = 0;
+        } else if (keep == buffer.length) {
+            // A single record fills the whole buffer; make room for more
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        bufferLength = keep;
+
+        int read = input.read(buffer, bufferLength, buffer.length - bufferLength);
+        if (read <= 0) {
+            endOfInput = true;
+            return false;
+        }
+        bufferLength += read;
+        return true;
+    }
+
+    private String decode(int start, int length) {
+        boolean ascii = true;
+        for (int i = start; i < start + length; i++) {
+            if (buffer[i] < 0) {
+                ascii = false;
+                break;
+            }
+        }
+        if (ascii) {
+            return new String(buffer, start, length, StandardCharsets.ISO_8859_1);
+        }
+
+        if (utf8Decoder == null) {
+            utf8Decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT);
+        }
+        try {
+            return utf8Decoder.decode(ByteBuffer.wrap(buffer, start, length)).toString();
+        } catch (CharacterCodingException e) {
+            // Not UTF-8, so treat it as the single-byte Latin-1 the asset was exported in
+            return new String(buffer, start, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
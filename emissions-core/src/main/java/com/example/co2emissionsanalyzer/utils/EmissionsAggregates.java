@@ -0,0 +1,196 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * World and per-country rollups built once when the dataset is loaded, so
+ * that totals over any year range, shares of the world total and per-year
+ * ranks are O(1) lookups instead of scans over every country.
+ *
+ * Totals are kept as prefix sums: the total for fromYear..toYear is
+ * cumulative[toYear + 1] - cumulative[fromYear]. Ranks are 1-based, follow
+ * {@link YearRankingIndex} (ties keep dataset order) and are 0 for countries
+ * without emissions in that year.
+ *
+ * After a merge, {@link #withChanges} rebuilds only what the changed countries
+ * and years affect.
+ */
+public class EmissionsAggregates {
+    private final int firstYear;
+    private final int lastYear;
+    // worldCumulative[i] = world emissions from firstYear up to (excluding) firstYear + i
+    private final long[] worldCumulative;
+    // Same per country, starting at that country's first year
+    private final int[] countryFirstYears;
+    private final long[][] countryCumulative;
+    // ranks[year - firstYear][ordinal]
+    private final int[][] ranks;
+
+    public EmissionsAggregates(List<CountryEmission> countries, YearRankingIndex rankingIndex) {
+        this(countries, rankingIndex, null, null, null);
+    }
+
+    // Takes rollups of countries not in changedOrdinals and of years not in changedYears from previous
+    private EmissionsAggregates(List<CountryEmission> countries, YearRankingIndex rankingIndex,
+                                EmissionsAggregates previous, BitSet changedOrdinals, BitSet changedYears) {
+        int minYear = Integer.MAX_VALUE;
+        int maxYear = Integer.MIN_VALUE;
+        for (CountryEmission country : countries) {
+            if (country.getYearCount() > 0) {
+                minYear = Math.min(minYear, country.getFirstYear());
+                maxYear = Math.max(maxYear, country.getLastYear());
+            }
+        }
+        if (minYear > maxYear) {
+            minYear = 0;
+            maxYear = -1;
+        }
+        firstYear = minYear;
+        lastYear = maxYear;
+        int yearCount = maxYear - minYear + 1;
+
+        long[] worldTotals = new long[yearCount];
+        countryFirstYears = new int[countries.size()];
+        countryCumulative = new long[countries.size()][];
+        for (int ordinal = 0; ordinal < countries.size(); ordinal++) {
+            if (previous != null && ordinal < previous.countryCumulative.length && !changedOrdinals.get(ordinal)) {
+                countryFirstYears[ordinal] = previous.countryFirstYears[ordinal];
+                countryCumulative[ordinal] = previous.countryCumulative[ordinal];
+                continue;
+            }
+
+            CountryEmission country = countries.get(ordinal);
+            if (country.getYearCount() == 0) {
+                countryCumulative[ordinal] = new long[1];
+                continue;
+            }
+
+            int start = country.getFirstYear();
+            int length = country.getLastYear() - start + 1;
+            long[] series = new long[length];
+            country.copyEmissions(start, country.getLastYear(), series, 0);
+
+            long[] cumulative = new long[length + 1];
+            for (int i = 0; i < length; i++) {
+                cumulative[i + 1] = Math.addExact(cumulative[i], series[i]);
+                if (previous == null) {
+                    worldTotals[start - minYear + i] = Math.addExact(worldTotals[start - minYear + i], series[i]);
+                }
+            }
+            countryFirstYears[ordinal] = start;
+            countryCumulative[ordinal] = cumulative;
+        }
+
+        if (previous != null) {
+            // Only years with changed values are summed again
+            for (int year = minYear; year <= maxYear; year++) {
+                if (!changedYears.get(year)) {
+                    worldTotals[year - minYear] = previous.getWorldTotal(year);
+                    continue;
+                }
+                for (CountryEmission country : countries) {
+                    worldTotals[year - minYear] = Math.addExact(worldTotals[year - minYear],
+                            country.getEmissionsForYear(year));
+                }
+            }
+        }
+
+        worldCumulative = new long[yearCount + 1];
+        for (int i = 0; i < yearCount; i++) {
+            worldCumulative[i + 1] = Math.addExact(worldCumulative[i], worldTotals[i]);
+        }
+
+        ranks = new int[yearCount][];
+        for (int year = minYear; year <= maxYear; year++) {
+            if (previous != null && !changedYears.get(year) && year >= previous.firstYear && year <= previous.lastYear) {
+                // New countries have no data in unchanged years, so they are padded with rank 0
+                int[] previousRanks = previous.ranks[year - previous.firstYear];
+                ranks[year - minYear] = previousRanks.length == countries.size()
+                        ? previousRanks
+                        : Arrays.copyOf(previousRanks, countries.size());
+                continue;
+            }
+            int[] yearRanks = new int[countries.size()];
+            for (int rank = 0; rank < rankingIndex.getRankedCount(year); rank++) {
+                yearRanks[rankingIndex.getOrdinalAtRank(year, rank)] = rank + 1;
+            }
+            ranks[year - minYear] = yearRanks;
+        }
+    }
+
+    /**
+     * Rollups for countries after a merge (see {@link YearRankingIndex#withChanges}).
+     * Prefix sums are rebuilt only for changedOrdinals and world totals and
+     * ranks only for changedYears; everything else is shared with this instance.
+     */
+    public EmissionsAggregates withChanges(List<CountryEmission> countries, YearRankingIndex rankingIndex,
+                                           BitSet changedOrdinals, BitSet changedYears) {
+        return new EmissionsAggregates(countries, rankingIndex, this, changedOrdinals, changedYears);
+    }
+
+    // Range of years covered; getLastYear() < getFirstYear() when there is no data
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    public int getLastYear() {
+        return lastYear;
+    }
+
+    // Sum of every country's emissions in the year
+    public long getWorldTotal(int year) {
+        return getWorldTotal(year, year);
+    }
+
+    // Sum of every country's emissions from fromYear to toYear, inclusive
+    public long getWorldTotal(int fromYear, int toYear) {
+        int from = Math.max(fromYear, firstYear) - firstYear;
+        int to = Math.min(toYear, lastYear) - firstYear + 1;
+        return from < to ? worldCumulative[to] - worldCumulative[from] : 0;
+    }
+
+    /**
+     * Writes the world total of every year from fromYear to toYear
+     * (inclusive) into target, starting at targetOffset. Years outside the
+     * covered range are written as 0.
+     */
+    public void copyWorldTotals(int fromYear, int toYear, long[] target, int targetOffset) {
+        for (int year = fromYear; year <= toYear; year++) {
+            int index = year - firstYear;
+            target[targetOffset + year - fromYear] = year >= firstYear && year <= lastYear
+                    ? worldCumulative[index + 1] - worldCumulative[index]
+                    : 0;
+        }
+    }
+
+    // Country's emissions from fromYear to toYear, inclusive
+    public long getCountryTotal(int ordinal, int fromYear, int toYear) {
+        long[] cumulative = countryCumulative[ordinal];
+        int start = countryFirstYears[ordinal];
+        int from = Math.max(fromYear - start, 0);
+        int to = Math.min(toYear - start + 1, cumulative.length - 1);
+        return from < to ? cumulative[to] - cumulative[from] : 0;
+    }
+
+    // Country's share (0..1) of world emissions in the year, or 0 if the world total is 0
+    public double getShareOfWorld(int ordinal, int year) {
+        return getShareOfWorld(ordinal, year, year);
+    }
+
+    // Country's share (0..1) of world emissions accumulated from fromYear to toYear
+    public double getShareOfWorld(int ordinal, int fromYear, int toYear) {
+        long world = getWorldTotal(fromYear, toYear);
+        return world == 0 ? 0 : (double) getCountryTotal(ordinal, fromYear, toYear) / world;
+    }
+
+    // 1-based rank of the country by emissions in the year, or 0 if it has none
+    public int getRank(int ordinal, int year) {
+        if (year < firstYear || year > lastYear) {
+            return 0;
+        }
+        return ranks[year - firstYear][ordinal];
+    }
+}
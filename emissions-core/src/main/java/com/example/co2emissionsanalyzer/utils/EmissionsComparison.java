@@ -0,0 +1,183 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Derived series for a selection of countries over one year window, computed
+ * up front. Each country's emissions are copied once into a flat primitive
+ * array, one row per country in selection order
+ * (values[row * yearCount + year - fromYear]), and every metric is then a
+ * plain loop over those rows; nothing is boxed or looked up per year.
+ *
+ * The first selected country is the reference for {@link Metric#RATIO_TO_REFERENCE}.
+ * Years without data count as 0 tons. Instances are immutable; get them
+ * through {@link ComparisonCache}, which caches them.
+ */
+public class EmissionsComparison {
+
+    public enum Metric {
+        // Tons emitted in the year
+        EMISSIONS,
+        // Emissions divided by the reference country's; NaN where the reference has none
+        RATIO_TO_REFERENCE,
+        // Share (0..1) of the selected countries' combined emissions in the year
+        SHARE_OF_SELECTION,
+        // Share (0..1) of world emissions in the year
+        SHARE_OF_WORLD,
+        // Change in tons from the year before (the year before the window for the first year)
+        YEAR_OVER_YEAR
+    }
+
+    private final List<CountryEmission> countries;
+    private final int fromYear;
+    private final int yearCount;
+
+    private final long[] emissions;
+    private final long[] yearOverYear;
+    private final double[] ratioToReference;
+    private final double[] shareOfSelection;
+    private final double[] shareOfWorld;
+    // Per year of the window
+    private final long[] selectionTotals;
+    private final long[] worldTotals;
+
+    EmissionsComparison(List<CountryEmission> countries, EmissionsAggregates aggregates, int fromYear, int toYear) {
+        if (countries.isEmpty() || toYear < fromYear) {
+            throw new IllegalArgumentException("Empty comparison: " + countries.size() + " countries, "
+                    + fromYear + "-" + toYear);
+        }
+        this.countries = Collections.unmodifiableList(countries);
+        this.fromYear = fromYear;
+        this.yearCount = toYear - fromYear + 1;
+
+        int countryCount = countries.size();
+        int size = countryCount * yearCount;
+        emissions = new long[size];
+        long[] previousYear = new long[countryCount];
+        for (int row = 0; row < countryCount; row++) {
+            CountryEmission country = countries.get(row);
+            country.copyEmissions(fromYear, toYear, emissions, row * yearCount);
+            previousYear[row] = country.getEmissionsForYear(fromYear - 1);
+        }
+
+        worldTotals = new long[yearCount];
+        aggregates.copyWorldTotals(fromYear, toYear, worldTotals, 0);
+
+        selectionTotals = new long[yearCount];
+        for (int row = 0; row < countryCount; row++) {
+            int base = row * yearCount;
+            for (int i = 0; i < yearCount; i++) {
+                selectionTotals[i] += emissions[base + i];
+            }
+        }
+
+        yearOverYear = new long[size];
+        ratioToReference = new double[size];
+        shareOfSelection = new double[size];
+        shareOfWorld = new double[size];
+        for (int row = 0; row < countryCount; row++) {
+            int base = row * yearCount;
+            long previous = previousYear[row];
+            for (int i = 0; i < yearCount; i++) {
+                long value = emissions[base + i];
+                long reference = emissions[i];
+                long selectionTotal = selectionTotals[i];
+                long worldTotal = worldTotals[i];
+
+                yearOverYear[base + i] = value - previous;
+                ratioToReference[base + i] = reference == 0 ? Double.NaN : (double) value / reference;
+                shareOfSelection[base + i] = selectionTotal == 0 ? 0 : (double) value / selectionTotal;
+                shareOfWorld[base + i] = worldTotal == 0 ? 0 : (double) value / worldTotal;
+                previous = value;
+            }
+        }
+    }
+
+    // Selected countries; row i of every series belongs to getCountries().get(i)
+    public List<CountryEmission> getCountries() {
+        return countries;
+    }
+
+    public int getFromYear() {
+        return fromYear;
+    }
+
+    public int getToYear() {
+        return fromYear + yearCount - 1;
+    }
+
+    public int getYearCount() {
+        return yearCount;
+    }
+
+    // Value of the metric for the country at countryIndex (selection order) in the year
+    public double getValue(Metric metric, int countryIndex, int year) {
+        int index = index(countryIndex, year);
+        switch (metric) {
+            case EMISSIONS:
+                return emissions[index];
+            case RATIO_TO_REFERENCE:
+                return ratioToReference[index];
+            case SHARE_OF_SELECTION:
+                return shareOfSelection[index];
+            case SHARE_OF_WORLD:
+                return shareOfWorld[index];
+            case YEAR_OVER_YEAR:
+                return yearOverYear[index];
+            default:
+                throw new IllegalArgumentException("Unknown metric " + metric);
+        }
+    }
+
+    /**
+     * Copies the metric for every year of the window into target, starting
+     * at targetOffset; target needs room for getYearCount() values.
+     */
+    public void copySeries(Metric metric, int countryIndex, double[] target, int targetOffset) {
+        int base = index(countryIndex, fromYear);
+        switch (metric) {
+            case EMISSIONS:
+                for (int i = 0; i < yearCount; i++) {
+                    target[targetOffset + i] = emissions[base + i];
+                }
+                break;
+            case YEAR_OVER_YEAR:
+                for (int i = 0; i < yearCount; i++) {
+                    target[targetOffset + i] = yearOverYear[base + i];
+                }
+                break;
+            case RATIO_TO_REFERENCE:
+                System.arraycopy(ratioToReference, base, target, targetOffset, yearCount);
+                break;
+            case SHARE_OF_SELECTION:
+                System.arraycopy(shareOfSelection, base, target, targetOffset, yearCount);
+                break;
+            case SHARE_OF_WORLD:
+                System.arraycopy(shareOfWorld, base, target, targetOffset, yearCount);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown metric " + metric);
+        }
+    }
+
+    // Combined emissions of the selected countries in the year
+    public long getSelectionTotal(int year) {
+        return selectionTotals[index(0, year)];
+    }
+
+    public long getWorldTotal(int year) {
+        return worldTotals[index(0, year)];
+    }
+
+    private int index(int countryIndex, int year) {
+        if (countryIndex < 0 || countryIndex >= countries.size()) {
+            throw new IndexOutOfBoundsException("Country index " + countryIndex + " of " + countries.size());
+        }
+        if (year < fromYear || year >= fromYear + yearCount) {
+            throw new IndexOutOfBoundsException("Year " + year + " outside " + fromYear + "-" + getToYear());
+        }
+        return countryIndex * yearCount + year - fromYear;
+    }
+}
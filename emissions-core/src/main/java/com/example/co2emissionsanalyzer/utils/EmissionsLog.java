@@ -0,0 +1,62 @@
+package com.example.co2emissionsanalyzer.utils;
+
+/**
+ * Logging for the core classes, which cannot use android.util.Log. Messages
+ * are dropped until a {@link Logger} is installed; the app forwards them to
+ * logcat, a batch job can forward them to its own logging.
+ *
+ * Messages below the installed minimum priority are dropped too. Callers that
+ * build a message by concatenation check {@link #isLoggable} first, so no
+ * string is built when the level is off.
+ */
+public final class EmissionsLog {
+
+    // Same values as the android.util.Log priorities
+    public static final int DEBUG = 3;
+    public static final int WARN = 5;
+    public static final int ERROR = 6;
+
+    public interface Logger {
+        void log(int priority, String tag, String message);
+    }
+
+    private static volatile Logger logger;
+    // Lowest priority passed to the logger; above ERROR while no logger is installed
+    private static volatile int minPriority = Integer.MAX_VALUE;
+
+    private EmissionsLog() {
+    }
+
+    // Installs the logger for the whole process at DEBUG; null turns logging off
+    public static void setLogger(Logger newLogger) {
+        setLogger(newLogger, DEBUG);
+    }
+
+    public static void setLogger(Logger newLogger, int newMinPriority) {
+        logger = newLogger;
+        minPriority = newLogger != null ? newMinPriority : Integer.MAX_VALUE;
+    }
+
+    public static boolean isLoggable(int priority) {
+        return priority >= minPriority;
+    }
+
+    public static void d(String tag, String message) {
+        log(DEBUG, tag, message);
+    }
+
+    public static void w(String tag, String message) {
+        log(WARN, tag, message);
+    }
+
+    public static void e(String tag, String message) {
+        log(ERROR, tag, message);
+    }
+
+    private static void log(int priority, String tag, String message) {
+        Logger current = logger;
+        if (current != null && priority >= minPriority) {
+            current.log(priority, tag, message);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.example.co2emissionsanalyzer.models.EmissionsDataset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Merges freshly parsed countries into a loaded dataset. Countries are matched
+ * by the name used in the CSV. A year in the update overwrites the same year
+ * in the dataset; years the update does not mention are kept, so a file
+ * holding only recent years is enough to refresh them. Non-empty population,
+ * area, share and density columns in the update replace the old ones.
+ *
+ * Updates should be parsed with zero rows kept (see
+ * {@link CSVParser#parseCSVStream(java.io.InputStream, boolean, CSVParser.ProgressListener)}).
+ * A year updated to 0 is removed from the country, as a full parse of the
+ * corrected file drops zero rows too.
+ *
+ * Only countries with an actual difference are copied, and only the years
+ * that differ are re-indexed (see {@link EmissionsDataset#withChanges}).
+ * Countries can be merged one at a time as they are parsed, so a large
+ * import never holds more than one parsed country besides the datasets.
+ */
+public class EmissionsMerger {
+
+    public static class Result {
+        private final EmissionsDataset dataset;
+        private final List<CountryEmission> changedCountries;
+        private final int addedCountries;
+        private final int changedValues;
+
+        Result(EmissionsDataset dataset, List<CountryEmission> changedCountries, int addedCountries, int changedValues) {
+            this.dataset = dataset;
+            this.changedCountries = changedCountries;
+            this.addedCountries = addedCountries;
+            this.changedValues = changedValues;
+        }
+
+        // The merged dataset, or the original one if nothing changed
+        public EmissionsDataset getDataset() {
+            return dataset;
+        }
+
+        // Countries of the merged dataset that were updated or added
+        public List<CountryEmission> getChangedCountries() {
+            return changedCountries;
+        }
+
+        public int getAddedCountries() {
+            return addedCountries;
+        }
+
+        // Number of (country, year) values that were added or changed
+        public int getChangedValues() {
+            return changedValues;
+        }
+
+        public boolean hasChanges() {
+            return !changedCountries.isEmpty();
+        }
+    }
+
+    private final EmissionsDataset base;
+    private final List<CountryEmission> merged;
+    // Ordinals of countries the update added, by name
+    private final Map<String, Integer> addedOrdinals = new HashMap<>();
+    private final BitSet changedOrdinals = new BitSet();
+    private final BitSet changedYears = new BitSet();
+    private int changedValues = 0;
+
+    /**
+     * Starts a merge into base. Countries are passed to {@link #add} one at a
+     * time, e.g. straight from
+     * {@link CSVParser#parseCSVStream(java.io.InputStream, boolean, CSVParser.CountryListener, CSVParser.ProgressListener)},
+     * so the update never has to be held in memory as a whole; {@link #finish}
+     * then builds the merged dataset. base itself is never modified.
+     */
+    public EmissionsMerger(EmissionsDataset base) {
+        this.base = base;
+        this.merged = new ArrayList<>(base.getCountries());
+    }
+
+    // Merges a whole parsed update at once
+    public static Result merge(EmissionsDataset base, List<CountryEmission> updates) {
+        EmissionsMerger merger = new EmissionsMerger(base);
+        for (CountryEmission update : updates) {
+            merger.add(update);
+        }
+        return merger.finish();
+    }
+
+    /**
+     * Merges one country of the update. The same country may be added more
+     * than once, e.g. when its rows are not contiguous in the file; later
+     * values win. update is copied where needed, so the caller may discard it.
+     */
+    public void add(CountryEmission update) {
+        int ordinal = findOrdinal(update.getCountryName());
+        if (ordinal < 0) {
+            CountryEmission added = update.copy();
+            for (int year = update.getFirstYear(); update.getYearCount() > 0 && year <= update.getLastYear(); year++) {
+                if (!update.hasEmissionsForYear(year)) {
+                    continue;
+                }
+                if (update.getEmissionsForYear(year) == 0) {
+                    added.removeEmissionData(year);
+                } else {
+                    changedYears.set(year);
+                    changedValues++;
+                }
+            }
+            addedOrdinals.put(update.getCountryName(), merged.size());
+            changedOrdinals.set(merged.size());
+            merged.add(added);
+            return;
+        }
+
+        CountryEmission existing = merged.get(ordinal);
+        // A country changed earlier in this merge is already a private copy
+        CountryEmission copy = changedOrdinals.get(ordinal) ? existing : null;
+        for (int year = update.getFirstYear(); update.getYearCount() > 0 && year <= update.getLastYear(); year++) {
+            if (!update.hasEmissionsForYear(year)) {
+                continue;
+            }
+            long value = update.getEmissionsForYear(year);
+            if (value == 0 ? !existing.hasEmissionsForYear(year)
+                    : existing.hasEmissionsForYear(year) && existing.getEmissionsForYear(year) == value) {
+                continue;
+            }
+            if (copy == null) {
+                copy = existing.copy();
+            }
+            if (value == 0) {
+                copy.removeEmissionData(year);
+            } else {
+                copy.addEmissionData(year, value);
+            }
+            changedYears.set(year);
+            changedValues++;
+        }
+
+        if (hasNewDetails(existing, update)) {
+            if (copy == null) {
+                copy = existing.copy();
+            }
+            copyDetails(update, copy);
+        }
+
+        if (copy != null && copy != existing) {
+            merged.set(ordinal, copy);
+            changedOrdinals.set(ordinal);
+        }
+    }
+
+    // Builds the merged dataset from everything added so far; the merger must not be used afterwards
+    public Result finish() {
+        if (changedOrdinals.isEmpty()) {
+            return new Result(base, Collections.emptyList(), 0, 0);
+        }
+
+        for (int ordinal = changedOrdinals.nextSetBit(0); ordinal >= 0; ordinal = changedOrdinals.nextSetBit(ordinal + 1)) {
+            merged.get(ordinal).trimToSize();
+        }
+        EmissionsDataset dataset = base.withChanges(merged, changedOrdinals, changedYears);
+        List<CountryEmission> changedCountries = new ArrayList<>(changedOrdinals.cardinality());
+        for (int ordinal = changedOrdinals.nextSetBit(0); ordinal >= 0; ordinal = changedOrdinals.nextSetBit(ordinal + 1)) {
+            changedCountries.add(dataset.getCountry(ordinal));
+        }
+        return new Result(dataset, Collections.unmodifiableList(changedCountries), addedOrdinals.size(),
+                changedValues);
+    }
+
+    // Ordinal of the country in the merged list, or -1 if neither base nor this merge has it
+    private int findOrdinal(String countryName) {
+        CountryEmission existing = base.getCountryByName(countryName);
+        if (existing != null) {
+            return existing.getOrdinal();
+        }
+        Integer added = addedOrdinals.get(countryName);
+        return added != null ? added : -1;
+    }
+
+    // True if the update carries a value for one of the country columns that differs from the current one
+    private static boolean hasNewDetails(CountryEmission existing, CountryEmission update) {
+        return (update.getPopulation() > 0 && update.getPopulation() != existing.getPopulation())
+                || (update.getArea() > 0 && update.getArea() != existing.getArea())
+                || (isPresent(update.getPercentageOfWorld())
+                        && !Objects.equals(update.getPercentageOfWorld(), existing.getPercentageOfWorld()))
+                || (isPresent(update.getDensity()) && !Objects.equals(update.getDensity(), existing.getDensity()));
+    }
+
+    private static void copyDetails(CountryEmission update, CountryEmission target) {
+        if (update.getPopulation() > 0) {
+            target.setPopulation(update.getPopulation());
+        }
+        if (update.getArea() > 0) {
+            target.setArea(update.getArea());
+        }
+        if (isPresent(update.getPercentageOfWorld())) {
+            target.setPercentageOfWorld(update.getPercentageOfWorld());
+            target.setPercentageOfWorldValue(update.getPercentageOfWorldValue());
+        }
+        if (isPresent(update.getDensity())) {
+            target.setDensity(update.getDensity());
+            target.setDensityValue(update.getDensityValue());
+        }
+    }
+
+    private static boolean isPresent(String value) {
+        return value != null && !value.isEmpty();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Process-wide timers and counters for the load and query paths. Everything
+ * is off by default: while disabled, {@link #start} and {@link #count} are a
+ * volatile read and a branch, and nothing is allocated or formatted.
+ *
+ * Timed phases can also be reported to a {@link Tracer}, which the app maps
+ * to android.os.Trace so they show up as named slices in Perfetto.
+ *
+ * <pre>
+ * long start = EmissionsMetrics.start(EmissionsMetrics.Timer.PARSE);
+ * try {
+ *     ...
+ * } finally {
+ *     EmissionsMetrics.stop(EmissionsMetrics.Timer.PARSE, start);
+ * }
+ * </pre>
+ */
+public final class EmissionsMetrics {
+
+    public enum Timer {
+        PARSE("co2:parse"),
+        INDEX_BUILD("co2:indexBuild"),
+        QUERY("co2:query"),
+        BIND("co2:bind");
+
+        private final String sectionName;
+
+        Timer(String sectionName) {
+            this.sectionName = sectionName;
+        }
+
+        public String getSectionName() {
+            return sectionName;
+        }
+    }
+
+    public enum Counter {
+        ROWS_PARSED,
+        ROWS_REJECTED
+    }
+
+    // Receives the start and end of every timed phase; sections nest per thread
+    public interface Tracer {
+        void beginSection(String name);
+
+        void endSection();
+    }
+
+    // Returned by start() when metrics are off; stop() ignores it
+    public static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private static final int TIMER_COUNT = Timer.values().length;
+
+    private static volatile boolean enabled;
+    private static volatile Tracer tracer;
+
+    // Per timer: calls, total nanos, max nanos
+    private static final AtomicLongArray timerCalls = new AtomicLongArray(TIMER_COUNT);
+    private static final AtomicLongArray timerNanos = new AtomicLongArray(TIMER_COUNT);
+    private static final AtomicLongArray timerMaxNanos = new AtomicLongArray(TIMER_COUNT);
+    private static final AtomicLongArray counters = new AtomicLongArray(Counter.values().length);
+
+    private EmissionsMetrics() {
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setTracer(Tracer newTracer) {
+        tracer = newTracer;
+    }
+
+    /**
+     * Starts timing a phase and opens its trace section. Returns the start
+     * time to pass to {@link #stop}, or {@link #NOT_STARTED} while disabled.
+     */
+    public static long start(Timer timer) {
+        if (!enabled) {
+            return NOT_STARTED;
+        }
+        Tracer current = tracer;
+        if (current != null) {
+            current.beginSection(timer.sectionName);
+        }
+        return System.nanoTime();
+    }
+
+    // Records the phase begun by start(); must run on the same thread so trace sections pair up
+    public static void stop(Timer timer, long startNanos) {
+        if (startNanos == NOT_STARTED) {
+            return;
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        Tracer current = tracer;
+        if (current != null) {
+            current.endSection();
+        }
+        int index = timer.ordinal();
+        timerCalls.incrementAndGet(index);
+        timerNanos.addAndGet(index, elapsed);
+        long max;
+        while ((max = timerMaxNanos.get(index)) < elapsed && !timerMaxNanos.compareAndSet(index, max, elapsed)) {
+            // Another thread raised the max; retry against its value
+        }
+    }
+
+    public static void count(Counter counter, long delta) {
+        if (enabled && delta != 0) {
+            counters.addAndGet(counter.ordinal(), delta);
+        }
+    }
+
+    public static long getCount(Counter counter) {
+        return counters.get(counter.ordinal());
+    }
+
+    public static long getCalls(Timer timer) {
+        return timerCalls.get(timer.ordinal());
+    }
+
+    public static long getTotalNanos(Timer timer) {
+        return timerNanos.get(timer.ordinal());
+    }
+
+    public static void reset() {
+        for (int i = 0; i < TIMER_COUNT; i++) {
+            timerCalls.set(i, 0);
+            timerNanos.set(i, 0);
+            timerMaxNanos.set(i, 0);
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    // Human-readable summary of every timer and counter, one per line
+    public static String dump() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Emissions metrics (").append(enabled ? "enabled" : "disabled").append(")\n");
+        for (Timer timer : Timer.values()) {
+            int index = timer.ordinal();
+            long calls = timerCalls.get(index);
+            long totalNanos = timerNanos.get(index);
+            builder.append(String.format(Locale.US, "  %-14s %8d calls  total %10.3f ms  avg %9.3f ms  max %9.3f ms\n",
+                    timer.name(), calls, totalNanos / 1e6, calls == 0 ? 0.0 : totalNanos / 1e6 / calls,
+                    timerMaxNanos.get(index) / 1e6));
+        }
+        for (Counter counter : Counter.values()) {
+            builder.append(String.format(Locale.US, "  %-14s %8d\n", counter.name(), counters.get(counter.ordinal())));
+        }
+        return builder.toString();
+    }
+}
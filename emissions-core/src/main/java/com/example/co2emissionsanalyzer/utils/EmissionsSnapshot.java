@@ -0,0 +1,317 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary copy of the parsed emissions dataset, so cold starts can skip
+ * tokenizing the CSV. The file is read through a memory-mapped buffer.
+ *
+ * Layout (big endian):
+ * <pre>
+ * header   magic, version, source checksum, source stamp, base year,
+ *          country count, string count and the offset of every section
+ * strings  interned string table: [int length][UTF-8 bytes] per entry,
+ *          the length counting bytes
+ * columns  one column per country field (name, % of world, density,
+ *          population, area, numeric % of world, numeric density,
+ *          first year offset, year count, values position)
+ * values   per country, one zig-zag varint delta per year starting at
+ *          its first year; years without data are stored as 0
+ * </pre>
+ */
+public class EmissionsSnapshot {
+
+    private static final int MAGIC = 0x434F3253; // "CO2S"
+    // Bump whenever the layout or the parser's output changes, so stale snapshots are rebuilt
+    static final int FORMAT_VERSION = 5;
+    private static final int HEADER_SIZE = 48;
+    private static final int NO_STRING = -1;
+
+    // Identifies what a snapshot was generated from
+    public static class Header {
+        private final long sourceChecksum;
+        private final long sourceStamp;
+
+        Header(long sourceChecksum, long sourceStamp) {
+            this.sourceChecksum = sourceChecksum;
+            this.sourceStamp = sourceStamp;
+        }
+
+        public long getSourceChecksum() {
+            return sourceChecksum;
+        }
+
+        public long getSourceStamp() {
+            return sourceStamp;
+        }
+    }
+
+    private EmissionsSnapshot() {
+    }
+
+    // CRC32 of the whole source stream; used to decide whether a snapshot is stale
+    public static long checksum(InputStream inputStream) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            crc.update(buffer, 0, read);
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Reads only the header, or returns null if the file is missing, corrupt
+     * or written by a different format version.
+     */
+    public static Header readHeader(File file) {
+        if (!file.isFile() || file.length() < HEADER_SIZE) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            if (raf.readInt() != MAGIC || raf.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            return new Header(raf.readLong(), raf.readLong());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Rewrites the source stamp in place, once the checksum confirmed the data is current
+    public static void updateSourceStamp(File file, long sourceStamp) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(16);
+            raf.writeLong(sourceStamp);
+        }
+    }
+
+    public static void write(List<CountryEmission> countries, long sourceChecksum, long sourceStamp,
+                             File file) throws IOException {
+        int countryCount = countries.size();
+        int baseYear = Integer.MAX_VALUE;
+        for (CountryEmission country : countries) {
+            if (country.getYearCount() > 0) {
+                baseYear = Math.min(baseYear, country.getFirstYear());
+            }
+        }
+        if (baseYear == Integer.MAX_VALUE) {
+            baseYear = 0;
+        }
+
+        // Intern every string so repeated values are stored once
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIds = new HashMap<>();
+        int[] nameRefs = new int[countryCount];
+        int[] percentageRefs = new int[countryCount];
+        int[] densityRefs = new int[countryCount];
+        for (int i = 0; i < countryCount; i++) {
+            CountryEmission country = countries.get(i);
+            nameRefs[i] = intern(country.getCountryName(), strings, stringIds);
+            percentageRefs[i] = intern(country.getPercentageOfWorld(), strings, stringIds);
+            densityRefs[i] = intern(country.getDensity(), strings, stringIds);
+        }
+
+        ByteArrayOutputStream stringSection = new ByteArrayOutputStream();
+        DataOutputStream stringOut = new DataOutputStream(stringSection);
+        for (String value : strings) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            stringOut.writeInt(bytes.length);
+            stringOut.write(bytes);
+        }
+
+        short[] firstYearOffsets = new short[countryCount];
+        short[] yearCounts = new short[countryCount];
+        int[] valuePositions = new int[countryCount];
+        ByteArrayOutputStream valueSection = new ByteArrayOutputStream();
+        for (int i = 0; i < countryCount; i++) {
+            CountryEmission country = countries.get(i);
+            valuePositions[i] = valueSection.size();
+            if (country.getYearCount() == 0) {
+                continue;
+            }
+
+            int firstYear = country.getFirstYear();
+            int lastYear = country.getLastYear();
+            firstYearOffsets[i] = (short) (firstYear - baseYear);
+            yearCounts[i] = (short) (lastYear - firstYear + 1);
+
+            long[] series = new long[lastYear - firstYear + 1];
+            country.copyEmissions(firstYear, lastYear, series, 0);
+            long previous = 0;
+            for (long current : series) {
+                writeVarLong(valueSection, zigZag(current - previous));
+                previous = current;
+            }
+        }
+
+        int stringsOffset = HEADER_SIZE;
+        int columnsOffset = stringsOffset + stringSection.size();
+        int valuesOffset = columnsOffset + countryCount * (4 + 4 + 4 + 8 + 8 + 8 + 8 + 2 + 2 + 4);
+
+        // Write to a temp file first so a crash never leaves a half-written snapshot
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(sourceChecksum);
+            out.writeLong(sourceStamp);
+            out.writeInt(baseYear);
+            out.writeInt(countryCount);
+            out.writeInt(strings.size());
+            out.writeInt(stringsOffset);
+            out.writeInt(columnsOffset);
+            out.writeInt(valuesOffset);
+
+            stringSection.writeTo(out);
+            for (int ref : nameRefs) out.writeInt(ref);
+            for (int ref : percentageRefs) out.writeInt(ref);
+            for (int ref : densityRefs) out.writeInt(ref);
+            for (CountryEmission country : countries) out.writeLong(country.getPopulation());
+            for (CountryEmission country : countries) out.writeLong(country.getArea());
+            for (CountryEmission country : countries) out.writeDouble(country.getPercentageOfWorldValue());
+            for (CountryEmission country : countries) out.writeDouble(country.getDensityValue());
+            for (short offset : firstYearOffsets) out.writeShort(offset);
+            for (short count : yearCounts) out.writeShort(count);
+            for (int position : valuePositions) out.writeInt(position);
+            valueSection.writeTo(out);
+        }
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+            throw new IOException("Could not move snapshot into place: " + file);
+        }
+    }
+
+    public static List<CountryEmission> read(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(buffer);
+        }
+    }
+
+    private static List<CountryEmission> decode(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Not a version " + FORMAT_VERSION + " emissions snapshot");
+        }
+        int baseYear = buffer.getInt(24);
+        int countryCount = buffer.getInt(28);
+        int stringCount = buffer.getInt(32);
+        int stringsOffset = buffer.getInt(36);
+        int columnsOffset = buffer.getInt(40);
+        int valuesOffset = buffer.getInt(44);
+
+        String[] strings = new String[stringCount];
+        int position = stringsOffset;
+        for (int i = 0; i < stringCount; i++) {
+            int length = buffer.getInt(position);
+            byte[] bytes = new byte[length];
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(position + 4);
+            slice.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            position += 4 + length;
+        }
+
+        int nameColumn = columnsOffset;
+        int percentageColumn = nameColumn + countryCount * 4;
+        int densityColumn = percentageColumn + countryCount * 4;
+        int populationColumn = densityColumn + countryCount * 4;
+        int areaColumn = populationColumn + countryCount * 8;
+        int percentageValueColumn = areaColumn + countryCount * 8;
+        int densityValueColumn = percentageValueColumn + countryCount * 8;
+        int firstYearColumn = densityValueColumn + countryCount * 8;
+        int yearCountColumn = firstYearColumn + countryCount * 2;
+        int valuePositionColumn = yearCountColumn + countryCount * 2;
+
+        List<CountryEmission> countries = new ArrayList<>(countryCount);
+        ByteBuffer values = buffer.duplicate();
+        for (int i = 0; i < countryCount; i++) {
+            CountryEmission country = new CountryEmission(
+                    stringAt(strings, buffer.getInt(nameColumn + i * 4)),
+                    buffer.getLong(populationColumn + i * 8),
+                    stringAt(strings, buffer.getInt(percentageColumn + i * 4)),
+                    stringAt(strings, buffer.getInt(densityColumn + i * 4)));
+            country.setArea(buffer.getLong(areaColumn + i * 8));
+            country.setPercentageOfWorldValue(buffer.getDouble(percentageValueColumn + i * 8));
+            country.setDensityValue(buffer.getDouble(densityValueColumn + i * 8));
+
+            int firstYear = baseYear + buffer.getShort(firstYearColumn + i * 2);
+            int yearCount = buffer.getShort(yearCountColumn + i * 2);
+            values.position(valuesOffset + buffer.getInt(valuePositionColumn + i * 4));
+            long current = 0;
+            for (int y = 0; y < yearCount; y++) {
+                current += unZigZag(readVarLong(values));
+                // The parser only keeps years with emissions, so mirror that here
+                if (current > 0) {
+                    country.addEmissionData(firstYear + y, current);
+                }
+            }
+            country.trimToSize();
+            countries.add(country);
+        }
+        return countries;
+    }
+
+    private static int intern(String value, List<String> strings, Map<String, Integer> stringIds) {
+        if (value == null) {
+            return NO_STRING;
+        }
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = strings.size();
+            strings.add(value);
+            stringIds.put(value, id);
+        }
+        return id;
+    }
+
+    private static String stringAt(String[] strings, int ref) {
+        return ref == NO_STRING ? null : strings[ref];
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.co2emissionsanalyzer.utils;
+
+/**
+ * Largest-triangle-three-buckets (LTTB) downsampling for line charts. Keeps
+ * the first and last point and, from each bucket in between, the point that
+ * forms the largest triangle with the previously kept point and the average
+ * of the next bucket, which preserves peaks and dips far better than picking
+ * every n-th point.
+ */
+public class SeriesDownsampler {
+
+    private SeriesDownsampler() {
+    }
+
+    /**
+     * Returns the indices (ascending, within from..to exclusive) of at most
+     * maxPoints points of the series to draw. If the range already fits, or
+     * maxPoints is below 3, every index in the range is returned.
+     */
+    public static int[] selectIndices(float[] xs, float[] ys, int from, int to, int maxPoints) {
+        int count = to - from;
+        if (count <= 0) {
+            return new int[0];
+        }
+        if (maxPoints >= count || maxPoints < 3) {
+            int[] all = new int[count];
+            for (int i = 0; i < count; i++) {
+                all[i] = from + i;
+            }
+            return all;
+        }
+
+        int[] selected = new int[maxPoints];
+        int size = 0;
+        // Buckets cover everything between the fixed first and last points
+        double bucketSize = (double) (count - 2) / (maxPoints - 2);
+        int previous = from;
+        selected[size++] = previous;
+
+        for (int bucket = 0; bucket < maxPoints - 2; bucket++) {
+            // Average of the next bucket (just the last point for the final bucket)
+            int nextStart = from + (int) ((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min(from + (int) ((bucket + 2) * bucketSize) + 1, to);
+            if (nextStart >= nextEnd) {
+                nextStart = to - 1;
+                nextEnd = to;
+            }
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += xs[i];
+                averageY += ys[i];
+            }
+            averageX /= nextEnd - nextStart;
+            averageY /= nextEnd - nextStart;
+
+            // Keep the point of this bucket forming the largest triangle
+            int start = from + (int) (bucket * bucketSize) + 1;
+            int end = Math.min(from + (int) ((bucket + 1) * bucketSize) + 1, to - 1);
+            double previousX = xs[previous];
+            double previousY = ys[previous];
+            double largestArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((previousX - averageX) * (ys[i] - previousY)
+                        - (previousX - xs[i]) * (averageY - previousY));
+                if (area > largestArea) {
+                    largestArea = area;
+                    chosen = i;
+                }
+            }
+            selected[size++] = chosen;
+            previous = chosen;
+        }
+
+        selected[size++] = to - 1;
+        return selected;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Keeps the k best-scoring countries seen so far in a bounded min-heap of
+ * primitive scores, so ranking n countries costs O(n log k) instead of a full
+ * copy and sort. Ties are broken stably: of two countries with the same
+ * score, the one offered first ranks higher.
+ *
+ * Countries can be offered one at a time, and {@link #getResult()} may be
+ * called at any point to get the best k among those offered so far.
+ */
+public class TopKSelector {
+
+    // Scores a country; return Double.NaN to leave the country out of the ranking
+    public interface Metric {
+        double score(CountryEmission country);
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int k;
+    // Heap arrays; the worst kept entry (lowest score, latest offer on ties) is at index 0
+    private double[] scores;
+    private long[] sequences;
+    private CountryEmission[] countries;
+    private int size;
+    private long offered;
+
+    public TopKSelector(int k) {
+        this.k = Math.max(k, 0);
+        int capacity = Math.min(this.k, INITIAL_CAPACITY);
+        this.scores = new double[capacity];
+        this.sequences = new long[capacity];
+        this.countries = new CountryEmission[capacity];
+    }
+
+    // Convenience for a one-off ranking of a whole list
+    public static List<CountryEmission> select(List<CountryEmission> countries, Metric metric, int k) {
+        TopKSelector selector = new TopKSelector(k);
+        selector.offerAll(countries, metric);
+        return selector.getResult();
+    }
+
+    public void offerAll(List<CountryEmission> candidates, Metric metric) {
+        for (int i = 0, n = candidates.size(); i < n; i++) {
+            CountryEmission country = candidates.get(i);
+            offer(country, metric.score(country));
+        }
+    }
+
+    /**
+     * Offers candidates until stopRequested returns true. Returns how many were
+     * offered, so callers can tell whether {@link #getResult()} is partial.
+     */
+    public int offerAll(List<CountryEmission> candidates, Metric metric, BooleanSupplier stopRequested) {
+        int n = candidates.size();
+        for (int i = 0; i < n; i++) {
+            if (stopRequested.getAsBoolean()) {
+                return i;
+            }
+            CountryEmission country = candidates.get(i);
+            offer(country, metric.score(country));
+        }
+        return n;
+    }
+
+    /**
+     * Offers a single country. Returns true if it is currently among the
+     * best k. NaN scores are ignored.
+     */
+    public boolean offer(CountryEmission country, double score) {
+        if (Double.isNaN(score) || k == 0) {
+            return false;
+        }
+        long sequence = offered++;
+
+        if (size < k) {
+            if (size == scores.length) {
+                grow();
+            }
+            scores[size] = score;
+            sequences[size] = sequence;
+            countries[size] = country;
+            siftUp(size++);
+            return true;
+        }
+
+        // A later offer with an equal score ranks lower, so it has to be strictly better
+        if (score <= scores[0]) {
+            return false;
+        }
+        scores[0] = score;
+        sequences[0] = sequence;
+        countries[0] = country;
+        siftDown(0, size);
+        return true;
+    }
+
+    // Whether k countries are already kept
+    public boolean isFull() {
+        return size == k;
+    }
+
+    /**
+     * Score a new candidate has to beat to enter the result once it is full,
+     * or negative infinity while there is still room.
+     */
+    public double getThreshold() {
+        return isFull() && size > 0 ? scores[0] : Double.NEGATIVE_INFINITY;
+    }
+
+    // Best countries offered so far, highest score first. Does not change the selector.
+    public List<CountryEmission> getResult() {
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+
+        double[] heapScores = scores.clone();
+        long[] heapSequences = sequences.clone();
+        CountryEmission[] heapCountries = countries.clone();
+        CountryEmission[] ordered = new CountryEmission[size];
+        // Pop the worst entry repeatedly and fill the result from the back
+        for (int remaining = size; remaining > 0; remaining--) {
+            ordered[remaining - 1] = heapCountries[0];
+            int last = remaining - 1;
+            heapScores[0] = heapScores[last];
+            heapSequences[0] = heapSequences[last];
+            heapCountries[0] = heapCountries[last];
+            siftDown(heapScores, heapSequences, heapCountries, 0, last);
+        }
+
+        List<CountryEmission> result = new ArrayList<>(size);
+        Collections.addAll(result, ordered);
+        return result;
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min((long) k, Math.max(1L, scores.length * 2L));
+        scores = Arrays.copyOf(scores, capacity);
+        sequences = Arrays.copyOf(sequences, capacity);
+        countries = Arrays.copyOf(countries, capacity);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isWorse(scores, sequences, index, parent)) {
+                return;
+            }
+            swap(scores, sequences, countries, index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int heapSize) {
+        siftDown(scores, sequences, countries, index, heapSize);
+    }
+
+    private static void siftDown(double[] scores, long[] sequences, CountryEmission[] countries, int index, int heapSize) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < heapSize && isWorse(scores, sequences, right, left)) {
+                worst = right;
+            }
+            if (!isWorse(scores, sequences, worst, index)) {
+                return;
+            }
+            swap(scores, sequences, countries, index, worst);
+            index = worst;
+        }
+    }
+
+    // Lower score is worse; on equal scores the later offer is worse
+    private static boolean isWorse(double[] scores, long[] sequences, int a, int b) {
+        if (scores[a] != scores[b]) {
+            return scores[a] < scores[b];
+        }
+        return sequences[a] > sequences[b];
+    }
+
+    private static void swap(double[] scores, long[] sequences, CountryEmission[] countries, int a, int b) {
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+        long sequence = sequences[a];
+        sequences[a] = sequences[b];
+        sequences[b] = sequence;
+        CountryEmission country = countries[a];
+        countries[a] = countries[b];
+        countries[b] = country;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Per-year ranking of countries by emissions, built once when the dataset is
+ * loaded. For every year it keeps the ordinals of the countries with
+ * emissions above zero, sorted from highest to lowest; ties keep file order,
+ * matching {@link CSVParser#getTopPolluters}. Top-N is a slice of that array
+ * and the highest emitter is its first entry.
+ *
+ * After a merge only the years whose values changed are ranked again; see
+ * {@link #withChanges}.
+ */
+public class YearRankingIndex {
+    private static final int[] NO_RANKING = new int[0];
+
+    private final List<CountryEmission> countries;
+    private final int firstYear;
+    private final int[][] rankingsByYear;
+    private final int latestYearWithData;
+
+    public YearRankingIndex(List<CountryEmission> countries) {
+        this(countries, null, null);
+    }
+
+    // Takes the rankings of years not set in changedYears from previous instead of sorting them again
+    private YearRankingIndex(List<CountryEmission> countries, YearRankingIndex previous, BitSet changedYears) {
+        this.countries = countries;
+
+        int minYear = Integer.MAX_VALUE;
+        int maxYear = Integer.MIN_VALUE;
+        for (CountryEmission country : countries) {
+            if (country.getYearCount() > 0) {
+                minYear = Math.min(minYear, country.getFirstYear());
+                maxYear = Math.max(maxYear, country.getLastYear());
+            }
+        }
+
+        if (minYear > maxYear) {
+            firstYear = 0;
+            rankingsByYear = new int[0][];
+            latestYearWithData = -1;
+            return;
+        }
+
+        firstYear = minYear;
+        rankingsByYear = new int[maxYear - minYear + 1][];
+        int[] candidates = new int[countries.size()];
+        long[] emissions = new long[countries.size()];
+        int latest = -1;
+        for (int year = minYear; year <= maxYear; year++) {
+            int[] ranking = previous != null && !changedYears.get(year)
+                    ? previous.getRanking(year)
+                    : rankYear(countries, year, candidates, emissions);
+            rankingsByYear[year - minYear] = ranking;
+            if (ranking.length > 0) {
+                latest = year;
+            }
+        }
+        latestYearWithData = latest;
+    }
+
+    /**
+     * Index for countries after a merge, where countries keeps every existing
+     * ordinal and changedYears has a bit set for each year in which any value
+     * changed or a new country has data. Rankings of all other years are
+     * shared with this index.
+     */
+    public YearRankingIndex withChanges(List<CountryEmission> countries, BitSet changedYears) {
+        return new YearRankingIndex(countries, this, changedYears);
+    }
+
+    // Most recent year in which at least one country has emissions, or -1 if none
+    public int getLatestYearWithData() {
+        return latestYearWithData;
+    }
+
+    public boolean hasDataForYear(int year) {
+        return getRanking(year).length > 0;
+    }
+
+    // Number of countries with emissions above zero in the given year
+    public int getRankedCount(int year) {
+        return getRanking(year).length;
+    }
+
+    // Countries with the highest emissions in the year, highest first
+    public List<CountryEmission> getTopEmitters(int year, int limit) {
+        int[] ranking = getRanking(year);
+        int size = Math.min(Math.max(limit, 0), ranking.length);
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        List<CountryEmission> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(countries.get(ranking[i]));
+        }
+        return result;
+    }
+
+    // Country with the highest emissions in the year, or null if nobody has data
+    public CountryEmission getHighestEmitter(int year) {
+        int[] ranking = getRanking(year);
+        return ranking.length > 0 ? countries.get(ranking[0]) : null;
+    }
+
+    // Ordinal of the country at the given 0-based rank
+    public int getOrdinalAtRank(int year, int rank) {
+        return getRanking(year)[rank];
+    }
+
+    private int[] getRanking(int year) {
+        int index = year - firstYear;
+        if (index < 0 || index >= rankingsByYear.length) {
+            return NO_RANKING;
+        }
+        return rankingsByYear[index];
+    }
+
+    // Ordinals with emissions above zero in the year, highest first; candidates and emissions are scratch space
+    private static int[] rankYear(List<CountryEmission> countries, int year, int[] candidates, long[] emissions) {
+        int count = 0;
+        for (int ordinal = 0; ordinal < countries.size(); ordinal++) {
+            long value = countries.get(ordinal).getEmissionsForYear(year);
+            if (value > 0) {
+                candidates[count] = ordinal;
+                emissions[ordinal] = value;
+                count++;
+            }
+        }
+        return count == 0 ? NO_RANKING : sortByEmissionsDescending(candidates, count, emissions);
+    }
+
+    // Stable merge sort of the first count ordinals by emissions, highest first
+    private static int[] sortByEmissionsDescending(int[] ordinals, int count, long[] emissions) {
+        int[] sorted = new int[count];
+        System.arraycopy(ordinals, 0, sorted, 0, count);
+        int[] scratch = new int[count];
+        for (int width = 1; width < count; width *= 2) {
+            for (int left = 0; left < count - width; left += 2 * width) {
+                int middle = left + width;
+                int right = Math.min(left + 2 * width, count);
+                int i = left;
+                int j = middle;
+                int k = left;
+                while (i < middle && j < right) {
+                    // Take from the left run on ties to keep the sort stable
+                    scratch[k++] = emissions[sorted[j]] > emissions[sorted[i]] ? sorted[j++] : sorted[i++];
+                }
+                while (i < middle) scratch[k++] = sorted[i++];
+                while (j < right) scratch[k++] = sorted[j++];
+                System.arraycopy(scratch, left, sorted, left, right - left);
+            }
+        }
+        return sorted;
+    }
+}
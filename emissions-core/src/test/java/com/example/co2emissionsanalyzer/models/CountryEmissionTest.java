@@ -0,0 +1,61 @@
+package com.example.co2emissionsanalyzer.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CountryEmissionTest {
+
+    @Test
+    public void totalEmissions_exceedIntRange() {
+        CountryEmission country = new CountryEmission("Test", 3_000_000_000L, "1.00%", "10/km2");
+        country.addEmissionData(2019, 3_000_000_000L);
+        country.addEmissionData(2020, 4_000_000_000L);
+
+        assertEquals(4_000_000_000L, country.getEmissionsForYear(2020));
+        assertEquals(7_000_000_000L, country.getTotalEmissions());
+        assertEquals(2020, country.getYearWithHighestEmissions());
+        assertEquals(7_000_000_000.0 / 3_000_000_000L, country.getAverageEmissionsPerCapita(), 1e-9);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void totalEmissions_overflowIsReported() {
+        CountryEmission country = new CountryEmission("Test", 1, null, null);
+        country.addEmissionData(2019, Long.MAX_VALUE);
+        country.addEmissionData(2020, 1);
+
+        country.getTotalEmissions();
+    }
+
+    @Test
+    public void removeEmissionData_shrinksYearRange() {
+        CountryEmission country = new CountryEmission();
+        country.addEmissionData(1990, 5);
+        country.addEmissionData(1991, 6);
+        country.addEmissionData(1995, 7);
+
+        country.removeEmissionData(1995);
+        assertFalse(country.hasEmissionsForYear(1995));
+        assertEquals(2, country.getYearCount());
+        assertEquals(1991, country.getLastYear());
+        assertEquals(11, country.getTotalEmissions());
+
+        country.removeEmissionData(1990);
+        country.removeEmissionData(1992);
+        assertEquals(1, country.getYearCount());
+        assertEquals(1991, country.getFirstYear());
+    }
+
+    @Test
+    public void missingYears_areDistinctFromZero() {
+        CountryEmission country = new CountryEmission();
+        country.addEmissionData(1990, 5);
+        country.addEmissionData(1995, 0);
+
+        assertTrue(country.hasEmissionsForYear(1995));
+        assertFalse(country.hasEmissionsForYear(1992));
+        assertEquals(0, country.getEmissionsForYear(1992));
+        assertEquals(2, country.getYearCount());
+        assertEquals(2, country.getCo2Emissions().size());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.co2emissionsanalyzer.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CountryStatsTest {
+
+    @Test
+    public void stats_computedFromSeries() {
+        CountryEmission country = new CountryEmission("Test", 10, null, null);
+        country.addEmissionData(1900, 0);
+        country.addEmissionData(1901, 100);
+        country.addEmissionData(1903, 400);
+        country.addEmissionData(1904, 200);
+
+        CountryStats stats = country.getStats();
+
+        assertEquals(4, stats.getYearCount());
+        assertEquals(700, stats.getTotalEmissions());
+        assertEquals(175, stats.getMeanEmissions(), 1e-9);
+        assertEquals(150, stats.getMedianEmissions(), 1e-9);
+        assertEquals(70, stats.getAveragePerCapita(), 1e-9);
+        assertEquals(1903, stats.getPeakYear());
+        assertEquals(400, stats.getPeakEmissions());
+        assertEquals(1901, stats.getFirstYearAboveZero());
+        assertEquals(1904, stats.getLatestYear());
+        assertEquals(0.5, stats.getLatestShareOfPeak(), 1e-9);
+        // 100 -> 200 over three years
+        assertEquals(Math.cbrt(2) - 1, stats.getCompoundAnnualGrowthRate(), 1e-12);
+    }
+
+    @Test
+    public void peakToDate_followsRunningMaximum() {
+        CountryEmission country = new CountryEmission("Test", 10, null, null);
+        country.addEmissionData(1900, 0);
+        country.addEmissionData(1901, 100);
+        country.addEmissionData(1902, 50);
+        country.addEmissionData(1904, 300);
+        country.addEmissionData(1905, 300);
+        country.addEmissionData(1906, 200);
+
+        CountryStats stats = country.getStats();
+
+        assertEquals(0, stats.getPeakToDate(1900));
+        assertEquals(0, stats.getPeakToDateYear(1899));
+        assertEquals(100, stats.getPeakToDate(1902));
+        assertEquals(1901, stats.getPeakToDateYear(1903));
+        assertEquals(300, stats.getPeakToDate(1905));
+        // A tie does not set a new high
+        assertEquals(1904, stats.getPeakToDateYear(1906));
+        assertEquals(stats.getPeakEmissions(), stats.getPeakToDate(2020));
+        assertEquals(2, stats.getRecordYearCount());
+    }
+
+    @Test
+    public void stats_areInvalidatedByChanges() {
+        CountryEmission country = new CountryEmission("Test", 2, null, null);
+        country.addEmissionData(2000, 10);
+        CountryStats before = country.getStats();
+        assertSame(before, country.getStats());
+        assertTrue(Double.isNaN(before.getCompoundAnnualGrowthRate()));
+
+        country.addEmissionData(2001, 30);
+        assertEquals(40, country.getTotalEmissions());
+        assertEquals(2001, country.getYearWithHighestEmissions());
+
+        country.setPopulation(4);
+        assertEquals(10, country.getAverageEmissionsPerCapita(), 1e-9);
+    }
+
+    @Test
+    public void stats_emptySeries() {
+        CountryStats stats = new CountryEmission().getStats();
+
+        assertEquals(0, stats.getYearCount());
+        assertEquals(0, stats.getTotalEmissions());
+        assertEquals(0, stats.getPeakYear());
+        assertEquals(0, stats.getFirstYearAboveZero());
+        assertTrue(Double.isNaN(stats.getLatestShareOfPeak()));
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Regression tests against known values from the bundled asset. Large
+ * emitters exceed the int range, so these fail if any step truncates.
+ */
+public class CSVParserTest {
+    // Local unit tests run with the module directory as working directory
+    private static final String ASSET_PATH = "../app/src/main/assets/co2_emission_by_countries.csv";
+
+    private static List<CountryEmission> countries;
+
+    @BeforeClass
+    public static void parseAsset() throws Exception {
+        countries = CSVParser.parseCSVStream(new FileInputStream(ASSET_PATH), null);
+    }
+
+    @Test
+    public void yearlyValues_keepFullPrecision() {
+        CountryEmission unitedStates = find("United States");
+        assertEquals(417_000_000_000L, unitedStates.getEmissionsForYear(2020));
+
+        CountryEmission china = find("China");
+        assertEquals(236_000_000_000L, china.getEmissionsForYear(2020));
+
+        CountryEmission india = find("India");
+        assertEquals(54_416_488_997L, india.getEmissionsForYear(2020));
+    }
+
+    @Test
+    public void totals_matchAssetSums() {
+        assertEquals(19_068_767_447_823L, find("United States").getTotalEmissions());
+        assertEquals(4_162_896_307_149L, find("China").getTotalEmissions());
+        assertEquals(5_300_530_860_522L, find("Germany").getTotalEmissions());
+        assertEquals(3_754_106_020L, find("Afghanistan").getTotalEmissions());
+    }
+
+    @Test
+    public void population_andPerCapita_useFullValues() {
+        CountryEmission china = find("China");
+        assertEquals(1_425_887_337L, china.getPopulation());
+        assertEquals(4_162_896_307_149.0 / 1_425_887_337L, china.getAverageEmissionsPerCapita(), 1e-6);
+    }
+
+    @Test
+    public void topPolluters_rankLargeEmittersCorrectly() {
+        List<CountryEmission> top = CSVParser.getTopPolluters(countries, 2020, 3);
+        assertEquals("United States", top.get(0).getCountryName());
+        assertEquals("China", top.get(1).getCountryName());
+        assertEquals("Russia", top.get(2).getCountryName());
+
+        assertEquals("United States", CSVParser.getHighestEmitterForYear(countries, 2020).getCountryName());
+    }
+
+    @Test
+    public void quotedRows_areParsedWithTheirDisplayStrings() {
+        // Quoted calling codes and densities used to shift the columns
+        assertEquals(220, countries.size());
+        assertEquals(11_228_821L, find("Dominican Republic").getPopulation());
+        assertEquals("1,924/km\u00B2", find("Bahrain").getDensity());
+        assertEquals("63/km\u00B2", find("Afghanistan").getDensity());
+    }
+
+    @Test
+    public void numericColumns_areParsedAtIngest() {
+        CountryEmission bahrain = find("Bahrain");
+        assertEquals(1924, bahrain.getDensityValue(), 0);
+        assertEquals(765, bahrain.getArea());
+        assertEquals(0.0, bahrain.getPercentageOfWorldValue(), 0);
+
+        CountryEmission china = find("China");
+        assertEquals(147, china.getDensityValue(), 0);
+        assertEquals(9_706_961, china.getArea());
+        assertEquals(6.30, china.getPercentageOfWorldValue(), 1e-12);
+        assertEquals((double) china.getEmissionsForYear(2020) / 9_706_961, china.getEmissionsPerSquareKm(2020), 1e-9);
+    }
+
+    @Test
+    public void parallelParse_matchesSequentialParse() throws Exception {
+        byte[] data = CSVParser.readFully(new FileInputStream(ASSET_PATH));
+
+        for (int threads : new int[]{1, 2, 4, 8}) {
+            List<CountryEmission> parallel = CSVParser.parseCSVBytesParallel(data, data.length, threads, null);
+
+            assertEquals(countries.size(), parallel.size());
+            for (int i = 0; i < countries.size(); i++) {
+                CountryEmission expected = countries.get(i);
+                CountryEmission actual = parallel.get(i);
+                assertEquals(expected.getCountryName(), actual.getCountryName());
+                assertEquals(expected.getPopulation(), actual.getPopulation());
+                assertEquals(expected.getDensity(), actual.getDensity());
+                assertEquals(expected.getCo2Emissions(), actual.getCo2Emissions());
+            }
+        }
+    }
+
+    @Test
+    public void parseChannel_inBothModes_matchesStreamParse() throws Exception {
+        for (CSVParser.ParseMode mode : CSVParser.ParseMode.values()) {
+            CSVParser parser = new CSVParser();
+            parser.setParseMode(mode, 2);
+            List<CountryEmission> parsed = parser.parse(FileChannel.open(Paths.get(ASSET_PATH)), null);
+
+            assertEquals(countries.size(), parsed.size());
+            for (int i = 0; i < countries.size(); i++) {
+                assertEquals(countries.get(i).getCountryName(), parsed.get(i).getCountryName());
+                assertEquals(countries.get(i).getCo2Emissions(), parsed.get(i).getCo2Emissions());
+            }
+        }
+    }
+
+    @Test
+    public void streamedParse_passesEachCountryOnceInFileOrder() throws Exception {
+        List<CountryEmission> streamed = new ArrayList<>();
+        int[] lastProgress = new int[2];
+        CSVParser.parseCSVStream(new FileInputStream(ASSET_PATH), false, streamed::add,
+                (processedLines, countriesFound) -> {
+                    lastProgress[0] = processedLines;
+                    lastProgress[1] = countriesFound;
+                });
+
+        assertEquals(countries.size(), streamed.size());
+        for (int i = 0; i < countries.size(); i++) {
+            assertEquals(countries.get(i).getCountryName(), streamed.get(i).getCountryName());
+            assertEquals(countries.get(i).getPopulation(), streamed.get(i).getPopulation());
+            assertEquals(countries.get(i).getCo2Emissions(), streamed.get(i).getCo2Emissions());
+        }
+        assertEquals(countries.size(), lastProgress[1]);
+        assertTrue(lastProgress[0] > 0);
+    }
+
+    @Test
+    public void keepZeroRows_keepsExplicitZerosOnly() throws Exception {
+        String csv = "Country,Code,Calling Code,Year,CO2 emission (Tons),Population(2022),Area,% of World,Density(km2)\n"
+                + "Chad,TD,235,2019,0,17723315,1284000,0.22%,14/km2\n"
+                + "Chad,TD,235,2020,,17723315,1284000,0.22%,14/km2\n"
+                + "Chad,TD,235,2021,5,17723315,1284000,0.22%,14/km2\n";
+        byte[] data = csv.getBytes(StandardCharsets.UTF_8);
+
+        CountryEmission dropped = CSVParser.parseCSVStream(new ByteArrayInputStream(data), null).get(0);
+        assertEquals(1, dropped.getYearCount());
+        assertFalse(dropped.hasEmissionsForYear(2019));
+
+        CountryEmission kept = CSVParser.parseCSVStream(new ByteArrayInputStream(data), true, null).get(0);
+        assertEquals(2, kept.getYearCount());
+        assertTrue(kept.hasEmissionsForYear(2019));
+        assertEquals(0, kept.getEmissionsForYear(2019));
+        // A blank value is still no data
+        assertFalse(kept.hasEmissionsForYear(2020));
+    }
+
+    @Test
+    public void installedLogger_receivesParserMessages() throws Exception {
+        List<String> messages = new ArrayList<>();
+        EmissionsLog.setLogger((priority, tag, message) -> messages.add(tag + ": " + message));
+        try {
+            CSVParser.getTopPolluters(countries, 2020, 3);
+        } finally {
+            EmissionsLog.setLogger(null);
+        }
+        assertEquals(1, messages.size());
+        assertTrue(messages.get(0).startsWith("CSVParser: getTopPolluters"));
+    }
+
+    private static CountryEmission find(String name) {
+        for (CountryEmission country : countries) {
+            if (country.getCountryName().equals(name)) {
+                return country;
+            }
+        }
+        fail("Country not found: " + name);
+        return null;
+    }
+}
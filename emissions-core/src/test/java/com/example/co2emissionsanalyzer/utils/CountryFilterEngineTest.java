@@ -0,0 +1,112 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.example.co2emissionsanalyzer.models.EmissionsDataset;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CountryFilterEngineTest {
+    private static final String ASSET_PATH = "../app/src/main/assets/co2_emission_by_countries.csv";
+
+    private static EmissionsDataset dataset;
+
+    @BeforeClass
+    public static void parseAsset() throws Exception {
+        dataset = new EmissionsDataset(CSVParser.parseCSVStream(new FileInputStream(ASSET_PATH), null));
+    }
+
+    private static long rangeTotal(CountryEmission country, int fromYear, int toYear) {
+        long total = 0;
+        for (int year = fromYear; year <= toYear; year++) {
+            total += country.getEmissionsForYear(year);
+        }
+        return total;
+    }
+
+    @Test
+    public void andQuery_matchesRowByRowEvaluation() {
+        CountryQuery query = CountryQuery.and(
+                CountryQuery.range(CountryQuery.Column.EMISSIONS, 1e8, 1e10),
+                CountryQuery.range(CountryQuery.Column.POPULATION, 5_000_000, 100_000_000),
+                CountryQuery.atLeast(CountryQuery.Column.DENSITY, 50));
+
+        BitSet actual = dataset.getFilterEngine().evaluate(query, 2000, 2010);
+
+        BitSet expected = new BitSet();
+        for (CountryEmission country : dataset.getCountries()) {
+            long total = rangeTotal(country, 2000, 2010);
+            double density = country.getDensityValue();
+            if (total >= 1e8 && total <= 1e10
+                    && country.getPopulation() >= 5_000_000 && country.getPopulation() <= 100_000_000
+                    && density >= 50) {
+                expected.set(country.getOrdinal());
+            }
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void orQuery_matchesRowByRowEvaluation() {
+        CountryQuery query = CountryQuery.or(
+                CountryQuery.atLeast(CountryQuery.Column.EMISSIONS_PER_CAPITA, 10),
+                CountryQuery.range(CountryQuery.Column.DENSITY, 0, 5));
+
+        BitSet actual = dataset.getFilterEngine().evaluate(query, 2020, 2020);
+
+        BitSet expected = new BitSet();
+        for (CountryEmission country : dataset.getCountries()) {
+            double perCapita = country.getPopulation() > 0
+                    ? (double) country.getEmissionsForYear(2020) / country.getPopulation() : Double.NaN;
+            double density = country.getDensityValue();
+            if (perCapita >= 10 || (density >= 0 && density <= 5)) {
+                expected.set(country.getOrdinal());
+            }
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void perSquareKmQuery_usesArea() {
+        CountryQuery query = CountryQuery.atLeast(CountryQuery.Column.EMISSIONS_PER_SQUARE_KM, 1000);
+
+        BitSet actual = dataset.getFilterEngine().evaluate(query, 2020, 2020);
+
+        BitSet expected = new BitSet();
+        for (CountryEmission country : dataset.getCountries()) {
+            if (country.getEmissionsPerSquareKm(2020) >= 1000) {
+                expected.set(country.getOrdinal());
+            }
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void filter_singleYearMatchesRanking() {
+        CountryQuery hasEmissions = CountryQuery.atLeast(CountryQuery.Column.EMISSIONS, 1);
+
+        for (int year : new int[]{1800, 1950, 2020}) {
+            List<CountryEmission> results = dataset.getFilterEngine().filter(hasEmissions, year, year);
+            assertEquals(dataset.getRankingIndex().getTopEmitters(year, Integer.MAX_VALUE), results);
+        }
+    }
+
+    @Test
+    public void filter_rangeIsSortedByRangeTotal() {
+        List<CountryEmission> results = dataset.getFilterEngine()
+                .filter(CountryQuery.atLeast(CountryQuery.Column.EMISSIONS, 1), 1990, 2020);
+
+        assertEquals("United States", results.get(0).getCountryName());
+        for (int i = 1; i < results.size(); i++) {
+            assertTrue(rangeTotal(results.get(i - 1), 1990, 2020) >= rangeTotal(results.get(i), 1990, 2020));
+        }
+    }
+}
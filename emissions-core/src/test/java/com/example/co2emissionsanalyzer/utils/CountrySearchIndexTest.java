@@ -0,0 +1,94 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CountrySearchIndexTest {
+    private static final String ASSET_PATH = "../app/src/main/assets/co2_emission_by_countries.csv";
+
+    private static List<CountryEmission> countries;
+    private static CountrySearchIndex index;
+
+    @BeforeClass
+    public static void buildIndex() throws Exception {
+        countries = CSVParser.parseCSVStream(new FileInputStream(ASSET_PATH), null);
+        index = new CountrySearchIndex(countries);
+    }
+
+    private static List<String> names(List<CountryEmission> matches) {
+        List<String> names = new ArrayList<>();
+        for (CountryEmission country : matches) {
+            names.add(country.getCountryName());
+        }
+        return names;
+    }
+
+    @Test
+    public void normalize_foldsCaseAccentsAndPunctuation() {
+        assertEquals("cote d ivoire", CountrySearchIndex.normalize("  Côte d'Ivoire "));
+        assertEquals("guinea bissau", CountrySearchIndex.normalize("GUINEA-BISSAU"));
+        assertEquals("", CountrySearchIndex.normalize(null));
+    }
+
+    @Test
+    public void search_ranksPrefixBeforeSubstring() {
+        List<String> matches = names(index.search("in", 50));
+
+        assertEquals("India", matches.get(0));
+        assertEquals("Indonesia", matches.get(1));
+        assertTrue(matches.indexOf("Argentina") > matches.indexOf("Indonesia"));
+    }
+
+    @Test
+    public void search_exactMatchComesFirst() {
+        assertEquals("Niger", index.findBestMatch("niger").getCountryName());
+        assertEquals("Guinea", index.findBestMatch("Guinea").getCountryName());
+    }
+
+    @Test
+    public void search_matchesWordPrefixesAndFoldedQueries() {
+        assertEquals("Sint Maarten (Dutch part)", index.findBestMatch("maarten").getCountryName());
+        assertEquals("Cote d'Ivoire", index.findBestMatch("Côte d'Iv").getCountryName());
+        assertTrue(names(index.search("guinea", 10)).contains("Papua New Guinea"));
+    }
+
+    @Test
+    public void search_findsSubstringsThroughTrigrams() {
+        List<String> matches = names(index.search("stan", 50));
+
+        assertTrue(matches.contains("Afghanistan"));
+        assertTrue(matches.contains("Kazakhstan"));
+        for (String name : matches) {
+            assertTrue(name, name.toLowerCase().contains("stan"));
+        }
+    }
+
+    @Test
+    public void search_matchesLinearScanForEveryQuery() {
+        // Every match the old contains() scan found must still be found
+        for (String query : new String[]{"a", "an", "ia", "land", "united", "rep", "xyz"}) {
+            List<String> expected = new ArrayList<>();
+            for (CountryEmission country : countries) {
+                if (country.getCountryName().toLowerCase().contains(query)) {
+                    expected.add(country.getCountryName());
+                }
+            }
+            List<String> actual = names(index.search(query, Integer.MAX_VALUE));
+            assertEquals(query, expected.size(), actual.size());
+            assertTrue(query, actual.containsAll(expected));
+        }
+    }
+
+    @Test
+    public void search_emptyQueryHasNoResults() {
+        assertTrue(index.search("   ", 10).isEmpty());
+        assertNull(index.findBestMatch("-"));
+    }
+}
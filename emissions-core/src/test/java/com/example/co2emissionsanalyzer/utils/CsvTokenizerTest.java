@@ -0,0 +1,100 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class CsvTokenizerTest {
+
+    @Test
+    public void quotedFields_keepEmbeddedCommas() throws Exception {
+        CsvTokenizer tokenizer = tokenizer("Dominican Republic,DO,\"1-809, 1-829\",1750,0\n", 64);
+
+        assertTrue(tokenizer.nextRecord());
+        assertEquals(5, tokenizer.getFieldCount());
+        assertEquals("1-809, 1-829", tokenizer.getString(2));
+        assertEquals(1750, tokenizer.parseInt(3, -1));
+        assertFalse(tokenizer.nextRecord());
+    }
+
+    @Test
+    public void escapedQuotes_andCrLfLineEndings() throws Exception {
+        CsvTokenizer tokenizer = tokenizer("\"say \"\"hi\"\"\",1\r\nnext,2\r\n", 64);
+
+        assertTrue(tokenizer.nextRecord());
+        assertEquals("say \"hi\"", tokenizer.getString(0));
+        assertTrue(tokenizer.nextRecord());
+        assertEquals("next", tokenizer.getString(0));
+        assertEquals(2, tokenizer.parseLong(1, -1));
+        assertFalse(tokenizer.nextRecord());
+    }
+
+    @Test
+    public void parseLeadingNumber_ignoresSeparatorsAndSuffix() throws Exception {
+        CsvTokenizer tokenizer = tokenizer("0.40%,\"1,924/km²\",63/km²,,n/a,0.00%\n", 64);
+
+        assertTrue(tokenizer.nextRecord());
+        assertEquals(0.40, tokenizer.parseLeadingNumber(0, -1), 0);
+        assertEquals(1924, tokenizer.parseLeadingNumber(1, -1), 0);
+        assertEquals(63, tokenizer.parseLeadingNumber(2, -1), 0);
+        assertEquals(-1, tokenizer.parseLeadingNumber(3, -1), 0);
+        assertEquals(-1, tokenizer.parseLeadingNumber(4, -1), 0);
+        assertEquals(0, tokenizer.parseLeadingNumber(5, -1), 0);
+    }
+
+    @Test
+    public void latin1Bytes_decodeToSuperscriptTwo() throws Exception {
+        byte[] latin1 = "63/km²\n".getBytes(StandardCharsets.ISO_8859_1);
+        CsvTokenizer fromLatin1 = new CsvTokenizer(new ByteArrayInputStream(latin1));
+        assertTrue(fromLatin1.nextRecord());
+        assertEquals("63/km²", fromLatin1.getString(0));
+
+        byte[] utf8 = "63/km²\n".getBytes(StandardCharsets.UTF_8);
+        CsvTokenizer fromUtf8 = new CsvTokenizer(new ByteArrayInputStream(utf8));
+        assertTrue(fromUtf8.nextRecord());
+        assertEquals("63/km²", fromUtf8.getString(0));
+    }
+
+    @Test
+    public void numbers_parseInPlace() throws Exception {
+        CsvTokenizer tokenizer = tokenizer(" 42 ,1.04E+11,0.40,-2.5e-3,abc,,12345678901234567890\n", 64);
+
+        assertTrue(tokenizer.nextRecord());
+        assertEquals(42, tokenizer.parseInt(0, -1));
+        assertEquals(104_000_000_000L, tokenizer.parseLong(1, -1));
+        assertEquals(0.40, tokenizer.parseDouble(2, -1), 0);
+        assertEquals(-2.5e-3, tokenizer.parseDouble(3, -1), 0);
+        assertEquals(-1, tokenizer.parseLong(4, -1));
+        assertTrue(tokenizer.isEmpty(5));
+        assertEquals(0, tokenizer.parseDouble(5, 0), 0);
+        assertEquals(1.2345678901234567e19, tokenizer.parseDouble(6, -1), 1e4);
+    }
+
+    @Test
+    public void recordsSpanningBufferRefills() throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            csv.append("Country ").append(i).append(",\"a, b\",").append(i * 1000L).append('\n');
+        }
+        // Last line without a trailing newline
+        csv.append("Last,x,7");
+
+        CsvTokenizer tokenizer = tokenizer(csv.toString(), 16);
+        for (int i = 0; i < 200; i++) {
+            assertTrue(tokenizer.nextRecord());
+            assertTrue(tokenizer.fieldEquals(0, "Country " + i));
+            assertEquals("a, b", tokenizer.getString(1));
+            assertEquals(i * 1000L, tokenizer.parseLong(2, -1));
+        }
+        assertTrue(tokenizer.nextRecord());
+        assertEquals(7, tokenizer.parseInt(2, -1));
+        assertFalse(tokenizer.nextRecord());
+    }
+
+    private static CsvTokenizer tokenizer(String csv, int bufferSize) {
+        return new CsvTokenizer(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), bufferSize);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.example.co2emissionsanalyzer.models.EmissionsDataset;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EmissionsAggregatesTest {
+    private static final String ASSET_PATH = "../app/src/main/assets/co2_emission_by_countries.csv";
+
+    private static EmissionsDataset dataset;
+
+    @BeforeClass
+    public static void parseAsset() throws Exception {
+        dataset = new EmissionsDataset(CSVParser.parseCSVStream(new FileInputStream(ASSET_PATH), null));
+    }
+
+    private static long scanWorldTotal(int fromYear, int toYear) {
+        long total = 0;
+        for (CountryEmission country : dataset.getCountries()) {
+            for (int year = fromYear; year <= toYear; year++) {
+                total += country.getEmissionsForYear(year);
+            }
+        }
+        return total;
+    }
+
+    @Test
+    public void worldTotals_matchFullScan() {
+        EmissionsAggregates aggregates = dataset.getAggregates();
+
+        assertEquals(1750, aggregates.getFirstYear());
+        assertEquals(2020, aggregates.getLastYear());
+        for (int year = 1750; year <= 2020; year += 10) {
+            assertEquals("year " + year, scanWorldTotal(year, year), aggregates.getWorldTotal(year));
+        }
+        assertEquals(scanWorldTotal(1990, 2020), aggregates.getWorldTotal(1990, 2022));
+        assertEquals(scanWorldTotal(1750, 2020), aggregates.getWorldTotal(1700, 2100));
+        assertEquals(0, aggregates.getWorldTotal(2021, 2022));
+    }
+
+    @Test
+    public void countryTotals_matchSeries() {
+        EmissionsAggregates aggregates = dataset.getAggregates();
+
+        for (CountryEmission country : dataset.getCountries()) {
+            assertEquals(country.getCountryName(), country.getTotalEmissions(),
+                    aggregates.getCountryTotal(country.getOrdinal(), 1700, 2100));
+            long since1990 = 0;
+            for (int year = 1990; year <= 2020; year++) {
+                since1990 += country.getEmissionsForYear(year);
+            }
+            assertEquals(since1990, aggregates.getCountryTotal(country.getOrdinal(), 1990, 2020));
+        }
+    }
+
+    @Test
+    public void sharesOfWorld_sumToOne() {
+        EmissionsAggregates aggregates = dataset.getAggregates();
+
+        double sum = 0;
+        double rangeSum = 0;
+        for (CountryEmission country : dataset.getCountries()) {
+            sum += aggregates.getShareOfWorld(country.getOrdinal(), 2020);
+            rangeSum += aggregates.getShareOfWorld(country.getOrdinal(), 1990, 2020);
+        }
+        assertEquals(1.0, sum, 1e-9);
+        assertEquals(1.0, rangeSum, 1e-9);
+    }
+
+    @Test
+    public void ranks_followRankingIndex() {
+        EmissionsAggregates aggregates = dataset.getAggregates();
+        List<CountryEmission> top = dataset.getRankingIndex().getTopEmitters(2020, 3);
+
+        assertEquals(Arrays.asList("United States", "China", "Russia"),
+                Arrays.asList(top.get(0).getCountryName(), top.get(1).getCountryName(), top.get(2).getCountryName()));
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(i + 1, aggregates.getRank(top.get(i).getOrdinal(), 2020));
+        }
+
+        for (CountryEmission country : dataset.getCountries()) {
+            int rank = aggregates.getRank(country.getOrdinal(), 1800);
+            assertEquals(country.getEmissionsForYear(1800) > 0, rank > 0);
+        }
+        assertEquals(0, aggregates.getRank(0, 2022));
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.example.co2emissionsanalyzer.models.EmissionsDataset;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.FileInputStream;
+
+import static org.junit.Assert.*;
+
+public class EmissionsComparisonTest {
+    private static final String ASSET_PATH = "../app/src/main/assets/co2_emission_by_countries.csv";
+
+    private static EmissionsDataset dataset;
+    private static int[] selection;
+
+    @BeforeClass
+    public static void parseAsset() throws Exception {
+        dataset = new EmissionsDataset(CSVParser.parseCSVStream(new FileInputStream(ASSET_PATH), null));
+        String[] names = {"Germany", "France", "China", "United States", "India", "Brazil"};
+        selection = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            CountryEmission country = dataset.getCountryByName(names[i]);
+            assertNotNull(names[i], country);
+            selection[i] = country.getOrdinal();
+        }
+    }
+
+    @Test
+    public void series_matchYearByYearLookups() {
+        EmissionsComparison comparison = dataset.getComparisonCache().compare(selection, 1950, 2020);
+
+        for (int year = 1950; year <= 2020; year++) {
+            long selectionTotal = 0;
+            for (int ordinal : selection) {
+                selectionTotal += dataset.getCountry(ordinal).getEmissionsForYear(year);
+            }
+            long worldTotal = dataset.getAggregates().getWorldTotal(year);
+            long reference = dataset.getCountry(selection[0]).getEmissionsForYear(year);
+            assertEquals(selectionTotal, comparison.getSelectionTotal(year));
+            assertEquals(worldTotal, comparison.getWorldTotal(year));
+
+            for (int i = 0; i < selection.length; i++) {
+                CountryEmission country = dataset.getCountry(selection[i]);
+                long value = country.getEmissionsForYear(year);
+                long previous = country.getEmissionsForYear(year - 1);
+                assertEquals(value, comparison.getValue(EmissionsComparison.Metric.EMISSIONS, i, year), 0);
+                assertEquals(value - previous,
+                        comparison.getValue(EmissionsComparison.Metric.YEAR_OVER_YEAR, i, year), 0);
+                assertEquals((double) value / reference,
+                        comparison.getValue(EmissionsComparison.Metric.RATIO_TO_REFERENCE, i, year), 1e-12);
+                assertEquals((double) value / selectionTotal,
+                        comparison.getValue(EmissionsComparison.Metric.SHARE_OF_SELECTION, i, year), 1e-12);
+                assertEquals((double) value / worldTotal,
+                        comparison.getValue(EmissionsComparison.Metric.SHARE_OF_WORLD, i, year), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void shareOfSelection_sumsToOnePerYear() {
+        EmissionsComparison comparison = dataset.getComparisonCache().compare(selection, 1990, 2000);
+        double[][] series = new double[selection.length][comparison.getYearCount()];
+        for (int i = 0; i < selection.length; i++) {
+            comparison.copySeries(EmissionsComparison.Metric.SHARE_OF_SELECTION, i, series[i], 0);
+        }
+
+        for (int year = 0; year < comparison.getYearCount(); year++) {
+            double sum = 0;
+            for (double[] countrySeries : series) {
+                sum += countrySeries[year];
+            }
+            assertEquals(1.0, sum, 1e-9);
+        }
+    }
+
+    @Test
+    public void ratioToReference_isNaNWhereReferenceHasNoData() {
+        CountryEmission reference = dataset.getCountry(selection[0]);
+        int year = reference.getFirstYear() - 1;
+        EmissionsComparison comparison = dataset.getComparisonCache().compare(selection, year, year + 1);
+
+        assertTrue(Double.isNaN(comparison.getValue(EmissionsComparison.Metric.RATIO_TO_REFERENCE, 1, year)));
+        assertEquals(1.0, comparison.getValue(EmissionsComparison.Metric.RATIO_TO_REFERENCE, 0, year + 1), 0);
+    }
+
+    @Test
+    public void compare_cachesBySelectionAndWindow() {
+        ComparisonCache cache = dataset.getComparisonCache();
+        EmissionsComparison first = cache.compare(selection, 2000, 2010);
+
+        assertSame(first, cache.compare(selection.clone(), 2000, 2010));
+        assertNotSame(first, cache.compare(selection, 2000, 2011));
+        int[] reversed = new int[selection.length];
+        for (int i = 0; i < selection.length; i++) {
+            reversed[i] = selection[selection.length - 1 - i];
+        }
+        EmissionsComparison other = cache.compare(reversed, 2000, 2010);
+        assertNotSame(first, other);
+        assertEquals(dataset.getCountry(reversed[0]), other.getCountries().get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compare_rejectsUnknownOrdinal() {
+        dataset.getComparisonCache().compare(new int[]{dataset.size()}, 2000, 2010);
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.example.co2emissionsanalyzer.models.EmissionsDataset;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EmissionsMergerTest {
+    private static final String ASSET_PATH = "../app/src/main/assets/co2_emission_by_countries.csv";
+    private static final String HEADER =
+            "Country,Code,Calling Code,Year,CO2 emission (Tons),Population(2022),Area,% of World,Density(km2)\n";
+
+    private EmissionsDataset base;
+
+    @Before
+    public void parseAsset() throws Exception {
+        base = new EmissionsDataset(CSVParser.parseCSVStream(new FileInputStream(ASSET_PATH), null));
+    }
+
+    private static List<CountryEmission> parse(String rows) throws Exception {
+        byte[] data = (HEADER + rows).getBytes(StandardCharsets.UTF_8);
+        // Same as the import path: explicit zeros are kept
+        return CSVParser.parseCSVStream(new ByteArrayInputStream(data), true, null);
+    }
+
+    @Test
+    public void merge_updatesOnlyChangedCountries() throws Exception {
+        CountryEmission china = base.getCountryByName("China");
+        CountryEmission chad = base.getCountryByName("Chad");
+        long china2019 = china.getEmissionsForYear(2019);
+
+        EmissionsMerger.Result result = EmissionsMerger.merge(base, parse(
+                "China,CN,86,2019," + china2019 + ",1425887337,9706961,6.30%,147/km²\n"
+                        + "China,CN,86,2020,240000000000,1425887337,9706961,6.30%,147/km²\n"
+                        + "China,CN,86,2021,250000000000,1425887337,9706961,6.30%,147/km²\n"
+                        + "Atlantis,AT,999,2020,5000,1000,10,0.00%,100/km²\n"));
+
+        assertTrue(result.hasChanges());
+        assertEquals(1, result.getAddedCountries());
+        // China 2020 and 2021, Atlantis 2020; China 2019 is unchanged
+        assertEquals(3, result.getChangedValues());
+        assertEquals(2, result.getChangedCountries().size());
+
+        EmissionsDataset merged = result.getDataset();
+        assertEquals(base.size() + 1, merged.size());
+        CountryEmission mergedChina = merged.getCountryByName("China");
+        assertEquals(china.getOrdinal(), mergedChina.getOrdinal());
+        assertEquals(240_000_000_000L, mergedChina.getEmissionsForYear(2020));
+        assertEquals(250_000_000_000L, mergedChina.getEmissionsForYear(2021));
+        assertEquals(china.getEmissionsForYear(1990), mergedChina.getEmissionsForYear(1990));
+        assertEquals(base.size(), merged.getCountryByName("Atlantis").getOrdinal());
+
+        // Untouched countries are shared, and the old dataset still has the old values
+        assertSame(chad, merged.getCountryByName("Chad"));
+        assertNotSame(china, mergedChina);
+        assertEquals(2020, china.getLastYear());
+        assertSame(china, base.getCountryByName("China"));
+    }
+
+    @Test
+    public void merge_indexesMatchFullRebuild() throws Exception {
+        EmissionsMerger.Result result = EmissionsMerger.merge(base, parse(
+                "Chad,TD,235,1950,99999999999,17723315,1284000,0.22%,14/km²\n"
+                        + "India,IN,91,2020,1,1417173173,3287590,17.77%,431/km²\n"
+                        + "Atlantis,AT,999,1900,5000,1000,10,0.00%,100/km²\n"));
+        EmissionsDataset merged = result.getDataset();
+
+        List<CountryEmission> copies = new ArrayList<>();
+        for (CountryEmission country : merged.getCountries()) {
+            copies.add(country.copy());
+        }
+        EmissionsDataset rebuilt = new EmissionsDataset(copies);
+
+        for (int year = 1750; year <= 2020; year++) {
+            assertEquals(ordinals(rebuilt.getRankingIndex().getTopEmitters(year, 500)),
+                    ordinals(merged.getRankingIndex().getTopEmitters(year, 500)));
+            assertEquals(rebuilt.getAggregates().getWorldTotal(year), merged.getAggregates().getWorldTotal(year));
+            for (int ordinal = 0; ordinal < merged.size(); ordinal++) {
+                assertEquals(rebuilt.getAggregates().getRank(ordinal, year),
+                        merged.getAggregates().getRank(ordinal, year));
+            }
+        }
+        for (int ordinal = 0; ordinal < merged.size(); ordinal++) {
+            assertEquals(rebuilt.getAggregates().getCountryTotal(ordinal, 1750, 2020),
+                    merged.getAggregates().getCountryTotal(ordinal, 1750, 2020));
+        }
+        assertEquals("Atlantis", merged.getSearchIndex().findBestMatch("atlan").getCountryName());
+        assertSame(merged.getCountryByName("India"), merged.getSearchIndex().findBestMatch("India"));
+        assertEquals(1, merged.getCountryByName("India").getEmissionsForYear(2020));
+    }
+
+    @Test
+    public void merge_withoutDifferences_keepsDataset() throws Exception {
+        CountryEmission china = base.getCountryByName("China");
+        EmissionsMerger.Result result = EmissionsMerger.merge(base, parse(
+                "China,CN,86,2020," + china.getEmissionsForYear(2020) + ",1425887337,9706961,6.30%,147/km²\n"
+                        // A zero for a year without data is no difference either
+                        + "China,CN,86,1700,0,1425887337,9706961,6.30%,147/km²\n"));
+
+        assertFalse(result.hasChanges());
+        assertSame(base, result.getDataset());
+    }
+
+    @Test
+    public void merge_valueCorrectedToZero_matchesFullReparse() throws Exception {
+        String row = "China,CN,86,2020,";
+        EmissionsMerger.Result result = EmissionsMerger.merge(base, parse(
+                row + "0,1425887337,9706961,6.30%,147/km²\n"));
+
+        assertTrue(result.hasChanges());
+        assertEquals(1, result.getChangedValues());
+
+        // The asset is not UTF-8, so edit it byte for byte
+        String asset = new String(CSVParser.readFully(new FileInputStream(ASSET_PATH)), StandardCharsets.ISO_8859_1);
+        String corrected = asset.replace(row + "2.36E+11,", row + "0,");
+        assertNotEquals(asset, corrected);
+        EmissionsDataset reparsed = new EmissionsDataset(CSVParser.parseCSVStream(
+                new ByteArrayInputStream(corrected.getBytes(StandardCharsets.ISO_8859_1)), null));
+
+        EmissionsDataset merged = result.getDataset();
+        CountryEmission mergedChina = merged.getCountryByName("China");
+        CountryEmission reparsedChina = reparsed.getCountryByName("China");
+        assertFalse(mergedChina.hasEmissionsForYear(2020));
+        assertEquals(reparsedChina.getYearCount(), mergedChina.getYearCount());
+        assertEquals(reparsedChina.getFirstYear(), mergedChina.getFirstYear());
+        assertEquals(reparsedChina.getLastYear(), mergedChina.getLastYear());
+        assertEquals(reparsedChina.getTotalEmissions(), mergedChina.getTotalEmissions());
+        assertEquals(reparsed.getAggregates().getWorldTotal(2020), merged.getAggregates().getWorldTotal(2020));
+        assertEquals(ordinals(reparsed.getRankingIndex().getTopEmitters(2020, 500)),
+                ordinals(merged.getRankingIndex().getTopEmitters(2020, 500)));
+        assertEquals(0, merged.getAggregates().getRank(mergedChina.getOrdinal(), 2020));
+    }
+
+    @Test
+    public void streamedMerge_matchesMergeOfParsedList() throws Exception {
+        CountryEmission china = base.getCountryByName("China");
+        // China's rows are split in two groups, so it reaches the merger twice
+        String rows = "China,CN,86,2020,240000000000,1425887337,9706961,6.30%,147/km²\n"
+                + "Atlantis,AT,999,2020,5000,1000,10,0.00%,100/km²\n"
+                + "China,CN,86,2021,250000000000,1425887337,9706961,6.30%,147/km²\n"
+                + "China,CN,86,1990,0,1425887337,9706961,6.30%,147/km²\n"
+                + "Atlantis,AT,999,2021,6000,1000,10,0.00%,100/km²\n";
+        EmissionsMerger.Result listed = EmissionsMerger.merge(base, parse(rows));
+
+        EmissionsMerger merger = new EmissionsMerger(base);
+        List<String> passed = new ArrayList<>();
+        CSVParser.parseCSVStream(new ByteArrayInputStream((HEADER + rows).getBytes(StandardCharsets.UTF_8)), true,
+                country -> {
+                    passed.add(country.getCountryName());
+                    merger.add(country);
+                }, null);
+        EmissionsMerger.Result streamed = merger.finish();
+
+        assertEquals(Arrays.asList("China", "Atlantis", "China", "Atlantis"), passed);
+        assertEquals(listed.getChangedValues(), streamed.getChangedValues());
+        assertEquals(1, streamed.getAddedCountries());
+        assertEquals(2, streamed.getChangedCountries().size());
+
+        EmissionsDataset merged = streamed.getDataset();
+        assertEquals(base.size() + 1, merged.size());
+        CountryEmission mergedChina = merged.getCountryByName("China");
+        assertEquals(240_000_000_000L, mergedChina.getEmissionsForYear(2020));
+        assertEquals(250_000_000_000L, mergedChina.getEmissionsForYear(2021));
+        assertFalse(mergedChina.hasEmissionsForYear(1990));
+        assertTrue(china.hasEmissionsForYear(1990));
+        CountryEmission atlantis = merged.getCountryByName("Atlantis");
+        assertEquals(5000, atlantis.getEmissionsForYear(2020));
+        assertEquals(6000, atlantis.getEmissionsForYear(2021));
+        for (int year = 1750; year <= 2021; year++) {
+            assertEquals(listed.getDataset().getAggregates().getWorldTotal(year),
+                    merged.getAggregates().getWorldTotal(year));
+            assertEquals(ordinals(listed.getDataset().getRankingIndex().getTopEmitters(year, 500)),
+                    ordinals(merged.getRankingIndex().getTopEmitters(year, 500)));
+        }
+    }
+
+    @Test
+    public void merge_updatesCountryColumns() throws Exception {
+        CountryEmission china = base.getCountryByName("China");
+        EmissionsMerger.Result result = EmissionsMerger.merge(base, parse(
+                "China,CN,86,2020," + china.getEmissionsForYear(2020) + ",1500000000,9706961,6.30%,155/km²\n"));
+
+        assertTrue(result.hasChanges());
+        assertEquals(0, result.getChangedValues());
+        CountryEmission mergedChina = result.getDataset().getCountryByName("China");
+        assertEquals(1_500_000_000L, mergedChina.getPopulation());
+        assertEquals(155, mergedChina.getDensityValue(), 0);
+        assertEquals(1_425_887_337L, china.getPopulation());
+    }
+
+    private static List<Integer> ordinals(List<CountryEmission> countries) {
+        List<Integer> ordinals = new ArrayList<>();
+        for (CountryEmission country : countries) {
+            ordinals.add(country.getOrdinal());
+        }
+        return ordinals;
+    }
+}
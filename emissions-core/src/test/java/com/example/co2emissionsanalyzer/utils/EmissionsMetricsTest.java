@@ -0,0 +1,102 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.example.co2emissionsanalyzer.models.EmissionsDataset;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EmissionsMetricsTest {
+    private static final String CSV =
+            "Country,Code,Calling Code,Year,CO2 emission (Tons),Population(2022),Area,% of World,Density(km2)\n"
+                    + "Chad,TD,235,1950,100,17723315,1284000,0.22%,14/km²\n"
+                    + "Chad,TD,235,1951,200,17723315,1284000,0.22%,14/km²\n"
+                    + "Chad,TD,235\n"
+                    + "Chad,TD,235,year,300,17723315,1284000,0.22%,14/km²\n"
+                    + "Mali,ML,223,1950,50,21904983,1240192,0.21%,18/km²\n";
+
+    @Before
+    public void resetMetrics() {
+        EmissionsMetrics.reset();
+    }
+
+    @After
+    public void disableMetrics() {
+        EmissionsMetrics.setEnabled(false);
+        EmissionsMetrics.setTracer(null);
+        EmissionsMetrics.reset();
+        EmissionsLog.setLogger(null);
+    }
+
+    private static List<CountryEmission> parse() throws Exception {
+        return CSVParser.parseCSVStream(new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    @Test
+    public void disabled_recordsNothing() throws Exception {
+        List<CountryEmission> countries = parse();
+        new EmissionsDataset(countries);
+        CSVParser.getTopPolluters(countries, 1950, 1);
+
+        assertEquals(EmissionsMetrics.NOT_STARTED, EmissionsMetrics.start(EmissionsMetrics.Timer.QUERY));
+        for (EmissionsMetrics.Timer timer : EmissionsMetrics.Timer.values()) {
+            assertEquals(0, EmissionsMetrics.getCalls(timer));
+        }
+        assertEquals(0, EmissionsMetrics.getCount(EmissionsMetrics.Counter.ROWS_PARSED));
+    }
+
+    @Test
+    public void enabled_recordsPhasesAndRows() throws Exception {
+        List<String> sections = new ArrayList<>();
+        EmissionsMetrics.setTracer(new EmissionsMetrics.Tracer() {
+            @Override
+            public void beginSection(String name) {
+                sections.add(name);
+            }
+
+            @Override
+            public void endSection() {
+                sections.add("end");
+            }
+        });
+        EmissionsMetrics.setEnabled(true);
+
+        List<CountryEmission> countries = parse();
+        EmissionsDataset dataset = new EmissionsDataset(countries);
+        dataset.getSearchIndex().search("cha", 5);
+
+        assertEquals(3, EmissionsMetrics.getCount(EmissionsMetrics.Counter.ROWS_PARSED));
+        assertEquals(2, EmissionsMetrics.getCount(EmissionsMetrics.Counter.ROWS_REJECTED));
+        assertEquals(1, EmissionsMetrics.getCalls(EmissionsMetrics.Timer.PARSE));
+        assertEquals(1, EmissionsMetrics.getCalls(EmissionsMetrics.Timer.INDEX_BUILD));
+        assertEquals(1, EmissionsMetrics.getCalls(EmissionsMetrics.Timer.QUERY));
+        assertEquals(List.of("co2:parse", "end", "co2:indexBuild", "end", "co2:query", "end"), sections);
+
+        String dump = EmissionsMetrics.dump();
+        assertTrue(dump.contains("ROWS_PARSED"));
+        assertTrue(dump.contains("INDEX_BUILD"));
+    }
+
+    @Test
+    public void logLevel_dropsLowerPriorities() throws Exception {
+        List<String> messages = new ArrayList<>();
+        EmissionsLog.setLogger((priority, tag, message) -> messages.add(message), EmissionsLog.WARN);
+
+        assertFalse(EmissionsLog.isLoggable(EmissionsLog.DEBUG));
+        assertTrue(EmissionsLog.isLoggable(EmissionsLog.WARN));
+        parse();
+
+        // Only the two rejected rows, no DEBUG summary
+        assertEquals(2, messages.size());
+
+        EmissionsLog.setLogger(null);
+        assertFalse(EmissionsLog.isLoggable(EmissionsLog.ERROR));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EmissionsSnapshotTest {
+    private static final String ASSET_PATH = "../app/src/main/assets/co2_emission_by_countries.csv";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void snapshot_roundTripsEveryColumn() throws Exception {
+        List<CountryEmission> parsed = CSVParser.parseCSVStream(new FileInputStream(ASSET_PATH), null);
+        File file = new File(folder.getRoot(), "snapshot");
+
+        EmissionsSnapshot.write(parsed, 42, 7, file);
+        EmissionsSnapshot.Header header = EmissionsSnapshot.readHeader(file);
+        List<CountryEmission> restored = EmissionsSnapshot.read(file);
+
+        assertEquals(42, header.getSourceChecksum());
+        assertEquals(7, header.getSourceStamp());
+        assertEquals(parsed.size(), restored.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            CountryEmission expected = parsed.get(i);
+            CountryEmission actual = restored.get(i);
+            assertEquals(expected.getCountryName(), actual.getCountryName());
+            assertEquals(expected.getPopulation(), actual.getPopulation());
+            assertEquals(expected.getArea(), actual.getArea());
+            assertEquals(expected.getPercentageOfWorld(), actual.getPercentageOfWorld());
+            assertEquals(expected.getPercentageOfWorldValue(), actual.getPercentageOfWorldValue(), 0);
+            assertEquals(expected.getDensity(), actual.getDensity());
+            assertEquals(expected.getDensityValue(), actual.getDensityValue(), 0);
+            assertEquals(expected.getCo2Emissions(), actual.getCo2Emissions());
+        }
+    }
+}
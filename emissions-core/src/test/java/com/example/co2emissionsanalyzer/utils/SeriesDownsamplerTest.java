@@ -0,0 +1,58 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SeriesDownsamplerTest {
+
+    private static float[] years(int count) {
+        float[] xs = new float[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = 1750 + i;
+        }
+        return xs;
+    }
+
+    @Test
+    public void selectIndices_keepsEverythingWhenItFits() {
+        float[] ys = {1, 5, 2, 8};
+
+        assertArrayEquals(new int[]{0, 1, 2, 3}, SeriesDownsampler.selectIndices(years(4), ys, 0, 4, 10));
+        assertArrayEquals(new int[]{1, 2}, SeriesDownsampler.selectIndices(years(4), ys, 1, 3, 2));
+        assertEquals(0, SeriesDownsampler.selectIndices(years(4), ys, 2, 2, 10).length);
+    }
+
+    @Test
+    public void selectIndices_keepsEndpointsAndRespectsBudget() {
+        int count = 273;
+        float[] ys = new float[count];
+        for (int i = 0; i < count; i++) {
+            ys[i] = (float) Math.sin(i / 10.0) * 100 + i;
+        }
+
+        int[] indices = SeriesDownsampler.selectIndices(years(count), ys, 0, count, 50);
+
+        assertEquals(50, indices.length);
+        assertEquals(0, indices[0]);
+        assertEquals(count - 1, indices[indices.length - 1]);
+        for (int i = 1; i < indices.length; i++) {
+            assertTrue(indices[i] > indices[i - 1]);
+        }
+    }
+
+    @Test
+    public void selectIndices_keepsIsolatedSpike() {
+        int count = 200;
+        float[] ys = new float[count];
+        ys[123] = 1_000_000f;
+
+        int[] indices = SeriesDownsampler.selectIndices(years(count), ys, 0, count, 20);
+
+        boolean found = false;
+        for (int index : indices) {
+            found |= index == 123;
+        }
+        assertTrue(found);
+    }
+}
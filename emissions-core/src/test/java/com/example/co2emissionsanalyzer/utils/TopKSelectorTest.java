@@ -0,0 +1,100 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TopKSelectorTest {
+
+    private static List<CountryEmission> countriesWithPopulations(long... populations) {
+        List<CountryEmission> countries = new ArrayList<>();
+        for (int i = 0; i < populations.length; i++) {
+            countries.add(new CountryEmission("Country " + i, populations[i], "0%", "0/km2"));
+        }
+        return countries;
+    }
+
+    private static final TopKSelector.Metric BY_POPULATION = country -> country.getPopulation();
+
+    @Test
+    public void select_matchesStableFullSort() {
+        Random random = new Random(42);
+        long[] populations = new long[500];
+        for (int i = 0; i < populations.length; i++) {
+            // Small range so there are plenty of ties
+            populations[i] = random.nextInt(50);
+        }
+        List<CountryEmission> countries = countriesWithPopulations(populations);
+
+        List<CountryEmission> sorted = new ArrayList<>(countries);
+        sorted.sort((a, b) -> Long.compare(b.getPopulation(), a.getPopulation()));
+
+        for (int k : new int[]{0, 1, 7, 100, 500, 1000}) {
+            List<CountryEmission> expected = sorted.subList(0, Math.min(k, sorted.size()));
+            assertEquals("k=" + k, expected, TopKSelector.select(countries, BY_POPULATION, k));
+        }
+    }
+
+    @Test
+    public void select_tiesKeepOfferOrder() {
+        List<CountryEmission> countries = countriesWithPopulations(5, 9, 5, 9, 5);
+
+        List<CountryEmission> top = TopKSelector.select(countries, BY_POPULATION, 3);
+
+        assertEquals(Arrays.asList(countries.get(1), countries.get(3), countries.get(0)), top);
+    }
+
+    @Test
+    public void select_skipsNaNScores() {
+        List<CountryEmission> countries = countriesWithPopulations(3, 0, 7, 0);
+        TopKSelector.Metric positiveOnly = country ->
+                country.getPopulation() > 0 ? country.getPopulation() : Double.NaN;
+
+        List<CountryEmission> top = TopKSelector.select(countries, positiveOnly, 10);
+
+        assertEquals(Arrays.asList(countries.get(2), countries.get(0)), top);
+        assertEquals(Collections.emptyList(),
+                TopKSelector.select(countries, country -> Double.NaN, 10));
+    }
+
+    @Test
+    public void offerAll_stopsEarlyWithPartialResult() {
+        List<CountryEmission> countries = countriesWithPopulations(1, 8, 3, 100, 50);
+        TopKSelector selector = new TopKSelector(2);
+        int[] checks = {0};
+
+        int offered = selector.offerAll(countries, BY_POPULATION, () -> checks[0]++ == 3);
+
+        assertEquals(3, offered);
+        assertEquals(Arrays.asList(countries.get(1), countries.get(2)), selector.getResult());
+
+        // Reading the result does not consume it, and offering can continue afterwards
+        selector.offerAll(countries.subList(offered, countries.size()), BY_POPULATION);
+        assertEquals(Arrays.asList(countries.get(3), countries.get(4)), selector.getResult());
+    }
+
+    @Test
+    public void threshold_isLowestKeptScoreOnceFull() {
+        TopKSelector selector = new TopKSelector(2);
+        List<CountryEmission> countries = countriesWithPopulations(4, 6, 5);
+
+        selector.offer(countries.get(0), 4);
+        assertFalse(selector.isFull());
+        assertEquals(Double.NEGATIVE_INFINITY, selector.getThreshold(), 0);
+
+        selector.offer(countries.get(1), 6);
+        assertTrue(selector.isFull());
+        assertEquals(4, selector.getThreshold(), 0);
+
+        assertFalse(selector.offer(countries.get(2), 4));
+        assertTrue(selector.offer(countries.get(2), 5));
+        assertEquals(5, selector.getThreshold(), 0);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.co2emissionsanalyzer.utils;
+
+import com.example.co2emissionsanalyzer.models.CountryEmission;
+import com.example.co2emissionsanalyzer.models.EmissionsDataset;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class YearRankingIndexTest {
+    private static final String ASSET_PATH = "../app/src/main/assets/co2_emission_by_countries.csv";
+
+    private static EmissionsDataset dataset;
+
+    @BeforeClass
+    public static void parseAsset() throws Exception {
+        dataset = new EmissionsDataset(CSVParser.parseCSVStream(new FileInputStream(ASSET_PATH), null));
+    }
+
+    @Test
+    public void rankings_matchFullSortForEveryYear() {
+        YearRankingIndex index = dataset.getRankingIndex();
+        List<CountryEmission> countries = dataset.getCountries();
+
+        for (int year = 1750; year <= 2022; year++) {
+            List<CountryEmission> expected = CSVParser.getTopPolluters(countries, year, Integer.MAX_VALUE);
+            assertEquals("year " + year, expected, index.getTopEmitters(year, Integer.MAX_VALUE));
+            assertEquals(expected.size(), index.getRankedCount(year));
+            assertEquals(CSVParser.getHighestEmitterForYear(countries, year), index.getHighestEmitter(year));
+        }
+    }
+
+    @Test
+    public void latestYear_isLastYearInAsset() {
+        YearRankingIndex index = dataset.getRankingIndex();
+
+        assertEquals(2020, index.getLatestYearWithData());
+        assertFalse(index.hasDataForYear(2022));
+        assertEquals(10, index.getTopEmitters(2020, 10).size());
+        assertEquals("United States", index.getHighestEmitter(2020).getCountryName());
+    }
+
+    @Test
+    public void emptyDataset_hasNoRankings() {
+        YearRankingIndex index = new YearRankingIndex(Arrays.asList(new CountryEmission()));
+
+        assertEquals(-1, index.getLatestYearWithData());
+        assertNull(index.getHighestEmitter(2020));
+        assertTrue(index.getTopEmitters(2020, 10).isEmpty());
+    }
+}
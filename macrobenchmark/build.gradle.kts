@@ -0,0 +1,84 @@
+import com.android.build.api.dsl.ManagedVirtualDevice
+
+plugins {
+    alias(libs.plugins.android.test)
+}
+
+// Startup benchmarks and the baseline profile generator, run against :app's benchmark build:
+//   ./gradlew :macrobenchmark:connectedBenchmarkAndroidTest
+// Works on a local device or an emulator; nothing needs network access. The
+// pixel6Api34 managed device runs them on an emulator Gradle creates itself
+// (its system image is downloaded on first use).
+android {
+    namespace = "com.example.co2emissionsanalyzer.macrobenchmark"
+    compileSdk = 35
+
+    defaultConfig {
+        minSdk = 24
+        targetSdk = 35
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+        // Emulator timings are noisy, but still useful for before/after comparisons
+        testInstrumentationRunnerArguments["androidx.benchmark.suppressErrors"] = "EMULATOR"
+    }
+
+    buildTypes {
+        // Must match the build type in :app that is measured
+        create("benchmark") {
+            isDebuggable = true
+            signingConfig = signingConfigs.getByName("debug")
+            matchingFallbacks += listOf("release")
+        }
+    }
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_11
+        targetCompatibility = JavaVersion.VERSION_11
+    }
+
+    testOptions {
+        managedDevices {
+            devices {
+                // Full AOSP image at API 33+, so the profile generator runs without root
+                create<ManagedVirtualDevice>("pixel6Api34") {
+                    device = "Pixel 6"
+                    apiLevel = 34
+                    systemImageSource = "aosp"
+                }
+            }
+        }
+    }
+
+    targetProjectPath = ":app"
+    experimentalProperties["android.experimental.self-instrumenting"] = true
+}
+
+dependencies {
+    implementation(libs.ext.junit)
+    implementation(libs.uiautomator)
+    implementation(libs.benchmark.macro.junit4)
+}
+
+androidComponents {
+    beforeVariants(selector().all()) {
+        it.enable = it.buildType == "benchmark"
+    }
+}
+
+// Copies the profile written by BaselineProfileGenerator over the one :app ships:
+//   ./gradlew :macrobenchmark:pixel6Api34BenchmarkAndroidTest \
+//       -Pandroid.testInstrumentationRunnerArguments.class=com.example.co2emissionsanalyzer.macrobenchmark.BaselineProfileGenerator
+//   ./gradlew :macrobenchmark:updateBaselineProfile
+// Output of a connected device run (connectedBenchmarkAndroidTest) is picked up the same way.
+tasks.register<Copy>("updateBaselineProfile") {
+    from(fileTree(layout.buildDirectory.dir("outputs")) {
+        include("**/BaselineProfileGenerator_startup-baseline-prof.txt")
+    })
+    into(rootProject.file("app/src/main"))
+    includeEmptyDirs = false
+    eachFile { path = "baseline-prof.txt" }
+    doFirst {
+        check(inputs.sourceFiles.files.size == 1) {
+            "Expected one generated profile under build/outputs, found ${inputs.sourceFiles.files}"
+        }
+    }
+}
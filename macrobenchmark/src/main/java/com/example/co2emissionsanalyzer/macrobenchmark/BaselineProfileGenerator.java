@@ -0,0 +1,64 @@
+package com.example.co2emissionsanalyzer.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Collects a baseline profile for the cold start path: the CSV parse or
+ * snapshot load, index building, binding the top polluters, plus a search
+ * and opening a country. Needs a device or emulator running API 33+, or a
+ * rooted API 28+ one; the pixel6Api34 managed device (API 34) is created by Gradle:
+ *
+ *   ./gradlew :macrobenchmark:pixel6Api34BenchmarkAndroidTest \
+ *       -Pandroid.testInstrumentationRunnerArguments.class=com.example.co2emissionsanalyzer.macrobenchmark.BaselineProfileGenerator
+ *   ./gradlew :macrobenchmark:updateBaselineProfile
+ *
+ * (connectedBenchmarkAndroidTest instead of the first task uses an attached
+ * device). The second task copies the generated profile over
+ * app/src/main/baseline-prof.txt; commit it noting the device and API level
+ * it came from.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    private static final long UI_TIMEOUT_MS = 5_000;
+
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void startup() {
+        baselineProfileRule.collect(MainScreen.PACKAGE_NAME, scope -> {
+            scope.pressHome();
+            scope.startActivityAndWait();
+            MainScreen.waitForTopPolluters(scope);
+
+            UiDevice device = scope.getDevice();
+            UiObject2 search = device.findObject(By.res(MainScreen.PACKAGE_NAME, "editTextSearch"));
+            if (search != null) {
+                search.setText("uni");
+                device.wait(Until.hasObject(By.textStartsWith("Countries matching")), UI_TIMEOUT_MS);
+                search.setText("");
+                MainScreen.waitForTopPolluters(scope);
+            }
+
+            UiObject2 firstRow = device.findObject(By.text("#1"));
+            if (firstRow != null) {
+                firstRow.click();
+                device.wait(Until.hasObject(By.res(MainScreen.PACKAGE_NAME, "textTotalEmissions")), UI_TIMEOUT_MS);
+                device.pressBack();
+            }
+            return Unit.INSTANCE;
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.co2emissionsanalyzer.macrobenchmark;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Until;
+
+// UI Automator steps on MainActivity shared by the benchmarks and the profile generator
+final class MainScreen {
+
+    static final String PACKAGE_NAME = "com.example.co2emissionsanalyzer";
+
+    // A cold start parses the whole CSV unless a snapshot exists, so allow for slow devices
+    private static final long LOAD_TIMEOUT_MS = 30_000;
+
+    private MainScreen() {
+    }
+
+    // Waits until the top polluters list shows real rows instead of the skeleton
+    static void waitForTopPolluters(MacrobenchmarkScope scope) {
+        if (!scope.getDevice().wait(Until.hasObject(By.text("#1")), LOAD_TIMEOUT_MS)) {
+            throw new AssertionError("Top polluters did not appear within " + LOAD_TIMEOUT_MS + " ms");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.co2emissionsanalyzer.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * Cold start of MainActivity. StartupTimingMetric reports
+ * timeToInitialDisplayMs (first frame) and timeToFullDisplayMs (the
+ * reportFullyDrawn() call made once the top polluters are on screen).
+ *
+ * Each run is repeated without AOT compilation and with the baseline
+ * profile, which shows what the profile saves. The profile run fails if the
+ * installed app carries no profile.
+ */
+@RunWith(Parameterized.class)
+public class StartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<Object[]> compilationModes() {
+        return Arrays.asList(
+                new Object[]{"None", new CompilationMode.None()},
+                new Object[]{"BaselineProfile", new CompilationMode.Partial(BaselineProfileMode.Require, 0)});
+    }
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private final CompilationMode compilationMode;
+
+    public StartupBenchmark(String name, CompilationMode compilationMode) {
+        this.compilationMode = compilationMode;
+    }
+
+    @Test
+    public void coldStartup() {
+        benchmarkRule.measureRepeated(
+                MainScreen.PACKAGE_NAME,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    MainScreen.waitForTopPolluters(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
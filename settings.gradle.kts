@@ -15,4 +15,7 @@ dependencyResolutionManagement {
 }
 
 rootProject.name = "CO2EmissionsAnalyzer"
-include(":app")
\ No newline at end of file
+include(":app")
+include(":benchmark")
+include(":emissions-core")
+include(":macrobenchmark")
\ No newline at end of file